@@ -2,7 +2,6 @@ package com.denizenscript.denizen2sponge;
 
 import com.denizenscript.denizen2core.Denizen2Core;
 import com.denizenscript.denizen2core.commands.CommandQueue;
-import com.denizenscript.denizen2core.tags.objects.MapTag;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2core.utilities.ErrorInducedException;
 import com.denizenscript.denizen2core.utilities.debugging.ColorSet;
@@ -19,14 +18,17 @@ import com.denizenscript.denizen2sponge.commands.server.ExecuteCommand;
 import com.denizenscript.denizen2sponge.commands.server.SaveDataCommand;
 import com.denizenscript.denizen2sponge.commands.server.ShutdownCommand;
 import com.denizenscript.denizen2sponge.commands.world.*;
+import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.events.entity.*;
 import com.denizenscript.denizen2sponge.events.player.*;
 import com.denizenscript.denizen2sponge.events.server.ClientPingsServerScriptEvent;
 import com.denizenscript.denizen2sponge.events.server.CommandSentScriptEvent;
+import com.denizenscript.denizen2sponge.events.server.FlagExpiresScriptEvent;
 import com.denizenscript.denizen2sponge.events.server.InternalScriptEvent;
 import com.denizenscript.denizen2sponge.events.server.ServerStopsScriptEvent;
 import com.denizenscript.denizen2sponge.events.world.*;
 import com.denizenscript.denizen2sponge.spongecommands.ExCommand;
+import com.denizenscript.denizen2sponge.spongecommands.TimingsCommand;
 import com.denizenscript.denizen2sponge.spongeevents.Denizen2SpongeLoadedEvent;
 import com.denizenscript.denizen2sponge.spongeevents.Denizen2SpongeLoadingEvent;
 import com.denizenscript.denizen2sponge.spongescripts.AdvancementScript;
@@ -35,16 +37,28 @@ import com.denizenscript.denizen2sponge.spongescripts.GameCommandScript;
 import com.denizenscript.denizen2sponge.spongescripts.ItemScript;
 import com.denizenscript.denizen2sponge.tags.handlers.*;
 import com.denizenscript.denizen2sponge.tags.objects.*;
+import com.denizenscript.denizen2sponge.utilities.EntityGrid;
+import com.denizenscript.denizen2sponge.utilities.EntityIndex;
 import com.denizenscript.denizen2sponge.utilities.GameRules;
+import com.denizenscript.denizen2sponge.utilities.ParseCache;
+import com.denizenscript.denizen2sponge.utilities.QueueScheduler;
+import com.denizenscript.denizen2sponge.utilities.TimedCommand;
+import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.flags.EntityFlags;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagExpiry;
 import com.denizenscript.denizen2sponge.utilities.flags.FlagHelper;
+import com.denizenscript.denizen2sponge.utilities.flags.ServerFlags;
 import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.event.cause.EventContext;
 import org.spongepowered.api.event.game.state.GamePreInitializationEvent;
+import org.spongepowered.api.event.game.state.GameStartedServerEvent;
 import org.spongepowered.api.event.game.state.GameStoppedEvent;
+import org.spongepowered.api.event.world.UnloadWorldEvent;
 import org.spongepowered.api.plugin.Plugin;
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.text.Text;
@@ -140,76 +154,76 @@ public class Denizen2Sponge {
         Denizen2Core.getImplementation().getAddonsFolder().mkdirs();
         Denizen2Core.getImplementation().getScriptDataFolder().mkdirs();
         // Commands: Entity
-        Denizen2Core.register(new AbsorptionCommand());
-        Denizen2Core.register(new AddAITaskCommand());
-        Denizen2Core.register(new AirCommand());
-        Denizen2Core.register(new BurnCommand());
-        Denizen2Core.register(new CastCommand());
-        Denizen2Core.register(new DefuseCommand());
-        Denizen2Core.register(new DetonateCommand());
-        Denizen2Core.register(new DropCommand());
-        Denizen2Core.register(new EditEntityCommand());
-        Denizen2Core.register(new EquipCommand());
-        Denizen2Core.register(new FlagCommand());
-        Denizen2Core.register(new GlowCommand());
-        Denizen2Core.register(new HealCommand());
-        Denizen2Core.register(new HurtCommand());
-        Denizen2Core.register(new InvisibleCommand());
-        Denizen2Core.register(new LookAtCommand());
-        Denizen2Core.register(new MountCommand());
-        Denizen2Core.register(new PrimeCommand());
-        Denizen2Core.register(new RemoveAITasksCommand());
-        Denizen2Core.register(new RemoveCommand());
-        Denizen2Core.register(new SpawnCommand());
-        Denizen2Core.register(new TargetCommand());
-        Denizen2Core.register(new TeleportCommand());
-        Denizen2Core.register(new UnflagCommand());
-        Denizen2Core.register(new VanishCommand());
+        Denizen2Core.register(new TimedCommand(new AbsorptionCommand()));
+        Denizen2Core.register(new TimedCommand(new AddAITaskCommand()));
+        Denizen2Core.register(new TimedCommand(new AirCommand()));
+        Denizen2Core.register(new TimedCommand(new BurnCommand()));
+        Denizen2Core.register(new TimedCommand(new CastCommand()));
+        Denizen2Core.register(new TimedCommand(new DefuseCommand()));
+        Denizen2Core.register(new TimedCommand(new DetonateCommand()));
+        Denizen2Core.register(new TimedCommand(new DropCommand()));
+        Denizen2Core.register(new TimedCommand(new EditEntityCommand()));
+        Denizen2Core.register(new TimedCommand(new EquipCommand()));
+        Denizen2Core.register(new TimedCommand(new FlagCommand()));
+        Denizen2Core.register(new TimedCommand(new GlowCommand()));
+        Denizen2Core.register(new TimedCommand(new HealCommand()));
+        Denizen2Core.register(new TimedCommand(new HurtCommand()));
+        Denizen2Core.register(new TimedCommand(new InvisibleCommand()));
+        Denizen2Core.register(new TimedCommand(new LookAtCommand()));
+        Denizen2Core.register(new TimedCommand(new MountCommand()));
+        Denizen2Core.register(new TimedCommand(new PrimeCommand()));
+        Denizen2Core.register(new TimedCommand(new RemoveAITasksCommand()));
+        Denizen2Core.register(new TimedCommand(new RemoveCommand()));
+        Denizen2Core.register(new TimedCommand(new SpawnCommand()));
+        Denizen2Core.register(new TimedCommand(new TargetCommand()));
+        Denizen2Core.register(new TimedCommand(new TeleportCommand()));
+        Denizen2Core.register(new TimedCommand(new UnflagCommand()));
+        Denizen2Core.register(new TimedCommand(new VanishCommand()));
         // Commands: Item
-        Denizen2Core.register(new CreateInventoryCommand());
-        Denizen2Core.register(new ForgetInventoryCommand());
-        Denizen2Core.register(new RememberInventoryCommand());
+        Denizen2Core.register(new TimedCommand(new CreateInventoryCommand()));
+        Denizen2Core.register(new TimedCommand(new ForgetInventoryCommand()));
+        Denizen2Core.register(new TimedCommand(new RememberInventoryCommand()));
         // Commands: Player
-        Denizen2Core.register(new ActionBarCommand());
-        Denizen2Core.register(new AdvancementCommand());
-        Denizen2Core.register(new BanCommand());
-        Denizen2Core.register(new CooldownCommand());
-        Denizen2Core.register(new CreateBossBarCommand());
-        Denizen2Core.register(new EditBossBarCommand());
-        Denizen2Core.register(new FeedCommand());
-        Denizen2Core.register(new GamemodeCommand());
-        Denizen2Core.register(new GiveCommand());
-        Denizen2Core.register(new HotbarCommand());
-        Denizen2Core.register(new KickCommand());
-        Denizen2Core.register(new NarrateCommand());
-        Denizen2Core.register(new PardonCommand());
-        Denizen2Core.register(new RemoveBossBarCommand());
-        Denizen2Core.register(new RemoveRespawnCommand());
-        Denizen2Core.register(new SetRespawnCommand());
-        Denizen2Core.register(new TabListCommand());
-        Denizen2Core.register(new TakeCommand());
-        Denizen2Core.register(new TellCommand());
-        Denizen2Core.register(new TitleCommand());
+        Denizen2Core.register(new TimedCommand(new ActionBarCommand()));
+        Denizen2Core.register(new TimedCommand(new AdvancementCommand()));
+        Denizen2Core.register(new TimedCommand(new BanCommand()));
+        Denizen2Core.register(new TimedCommand(new CooldownCommand()));
+        Denizen2Core.register(new TimedCommand(new CreateBossBarCommand()));
+        Denizen2Core.register(new TimedCommand(new EditBossBarCommand()));
+        Denizen2Core.register(new TimedCommand(new FeedCommand()));
+        Denizen2Core.register(new TimedCommand(new GamemodeCommand()));
+        Denizen2Core.register(new TimedCommand(new GiveCommand()));
+        Denizen2Core.register(new TimedCommand(new HotbarCommand()));
+        Denizen2Core.register(new TimedCommand(new KickCommand()));
+        Denizen2Core.register(new TimedCommand(new NarrateCommand()));
+        Denizen2Core.register(new TimedCommand(new PardonCommand()));
+        Denizen2Core.register(new TimedCommand(new RemoveBossBarCommand()));
+        Denizen2Core.register(new TimedCommand(new RemoveRespawnCommand()));
+        Denizen2Core.register(new TimedCommand(new SetRespawnCommand()));
+        Denizen2Core.register(new TimedCommand(new TabListCommand()));
+        Denizen2Core.register(new TimedCommand(new TakeCommand()));
+        Denizen2Core.register(new TimedCommand(new TellCommand()));
+        Denizen2Core.register(new TimedCommand(new TitleCommand()));
         // Commands: Server
-        Denizen2Core.register(new AnnounceCommand());
-        Denizen2Core.register(new ExecuteCommand());
-        Denizen2Core.register(new SaveDataCommand());
-        Denizen2Core.register(new ShutdownCommand());
+        Denizen2Core.register(new TimedCommand(new AnnounceCommand()));
+        Denizen2Core.register(new TimedCommand(new ExecuteCommand()));
+        Denizen2Core.register(new TimedCommand(new SaveDataCommand()));
+        Denizen2Core.register(new TimedCommand(new ShutdownCommand()));
         // Commands: World
-        Denizen2Core.register(new DeleteWorldCommand());
-        Denizen2Core.register(new DifficultyCommand());
-        Denizen2Core.register(new EditBlockCommand());
-        Denizen2Core.register(new ExplodeCommand());
-        Denizen2Core.register(new LoadWorldCommand());
-        Denizen2Core.register(new PlayEffectCommand());
-        Denizen2Core.register(new PlaySoundCommand());
-        Denizen2Core.register(new RemoveGameRuleCommand());
-        Denizen2Core.register(new SetBlockCommand());
-        Denizen2Core.register(new SetGameRuleCommand());
-        Denizen2Core.register(new StrikeCommand());
-        Denizen2Core.register(new UnloadWorldCommand());
-        Denizen2Core.register(new ViewDistanceCommand());
-        Denizen2Core.register(new WeatherCommand());
+        Denizen2Core.register(new TimedCommand(new DeleteWorldCommand()));
+        Denizen2Core.register(new TimedCommand(new DifficultyCommand()));
+        Denizen2Core.register(new TimedCommand(new EditBlockCommand()));
+        Denizen2Core.register(new TimedCommand(new ExplodeCommand()));
+        Denizen2Core.register(new TimedCommand(new LoadWorldCommand()));
+        Denizen2Core.register(new TimedCommand(new PlayEffectCommand()));
+        Denizen2Core.register(new TimedCommand(new PlaySoundCommand()));
+        Denizen2Core.register(new TimedCommand(new RemoveGameRuleCommand()));
+        Denizen2Core.register(new TimedCommand(new SetBlockCommand()));
+        Denizen2Core.register(new TimedCommand(new SetGameRuleCommand()));
+        Denizen2Core.register(new TimedCommand(new StrikeCommand()));
+        Denizen2Core.register(new TimedCommand(new UnloadWorldCommand()));
+        Denizen2Core.register(new TimedCommand(new ViewDistanceCommand()));
+        Denizen2Core.register(new TimedCommand(new WeatherCommand()));
         // Events: Entity
         Denizen2Core.register(new EntityCollidesWithBlockScriptEvent());
         Denizen2Core.register(new EntityCollidesWithEntityScriptEvent());
@@ -248,11 +262,13 @@ public class Denizen2Sponge {
         // Events: Server
         Denizen2Core.register(new ClientPingsServerScriptEvent());
         Denizen2Core.register(new CommandSentScriptEvent());
+        Denizen2Core.register(new FlagExpiresScriptEvent());
         Denizen2Core.register(new InternalScriptEvent());
         Denizen2Core.register(new ServerStopsScriptEvent());
         // Events: World
         Denizen2Core.register(new BlockChangesScriptEvent());
         Denizen2Core.register(new BlockFadesScriptEvent());
+        Denizen2Core.register(new BlocksChangeScriptEvent());
         Denizen2Core.register(new ExplosionOccursScriptEvent());
         Denizen2Core.register(new PortalFormedScriptEvent());
         Denizen2Core.register(new WeatherChangesScriptEvent());
@@ -296,11 +312,18 @@ public class Denizen2Sponge {
         Denizen2Core.customSaveLoaders.put("TextsBaseTag", (e, s) -> new TextsTagBase.TextsBaseTag());
         // Sponge Commands
         ExCommand.register();
+        TimingsCommand.register();
         // Sponge related Helpers
         FlagHelper.register();
+        EntityFlags.register();
+        EntityIndex.register();
+        EntityGrid.register();
+        ParseCache.register();
         GameRules.init();
         // Server Flags
         loadServerFlags();
+        ServerFlags.register();
+        FlagExpiry.register();
         // Call loading event for sub-plugins registering things
         Sponge.getEventManager().post(new Denizen2SpongeLoadingEvent(getGenericCause()));
         // Load Denizen2
@@ -308,7 +331,8 @@ public class Denizen2Sponge {
         // Build loaded advancements
         AdvancementScript.buildAll();
         // Central loop
-        Sponge.getScheduler().createTaskBuilder().intervalTicks(1).execute(() -> Denizen2Core.tick(0.05)).submit(this);
+        QueueScheduler.loadSettings();
+        Sponge.getScheduler().createTaskBuilder().intervalTicks(1).execute(() -> QueueScheduler.tick(0.05)).submit(this);
         // Call loaded event for sub-plugins to listen for
         Sponge.getEventManager().post(new Denizen2SpongeLoadedEvent(getGenericCause()));
         // TODO: Config option -> readyToSpamEvents = true;
@@ -318,6 +342,18 @@ public class Denizen2Sponge {
         return new File("./config/denizen/");
     }
 
+    @Listener
+    public void onServerStarted(GameStartedServerEvent event) {
+        // Plugins may register catalog types up until now, so forget any types looked up before they existed
+        Utilities.clearTypeCache();
+    }
+
+    @Listener(order = Order.POST)
+    public void onWorldUnloaded(UnloadWorldEvent event) {
+        WorldTag.forgetWorld(event.getTargetWorld());
+        D2SpongeEventHelper.forgetWorld(event.getTargetWorld());
+    }
+
     @Listener
     public void onServerStop(GameStoppedEvent event) {
         // Save server data
@@ -331,39 +367,13 @@ public class Denizen2Sponge {
     }
 
     public void loadServerFlags() {
-        try {
-            if (!getServerFlagsFile().exists()) {
-                serverFlagMap = new MapTag();
-                return;
-            }
-            InputStream is = new FileInputStream(getServerFlagsFile());
-            String str = CoreUtilities.streamToString(is);
-            is.close();
-            serverFlagMap = (MapTag) Denizen2Core.loadFromSaved(Debug::error, str);
-        }
-        catch (Exception e) {
-            Debug.exception(e);
-        }
+        ServerFlags.load();
     }
 
     public void saveServerFlags() {
-        try {
-            String flags = serverFlagMap.savable();
-            OutputStream os = new FileOutputStream(getServerFlagsFile(), false);
-            OutputStreamWriter osw = new OutputStreamWriter(os);
-            osw.write(flags);
-            osw.flush();
-            os.flush();
-            osw.close();
-            os.close();
-        }
-        catch (Exception e) {
-            Debug.exception(e);
-        }
+        ServerFlags.save();
     }
 
-    public MapTag serverFlagMap = new MapTag();
-
     public File getServerFlagsFile() {
         return new File(getMainDirectory(), "./server_flags.yml");
     }
@@ -5,9 +5,13 @@ import com.denizenscript.denizen2core.commands.CommandEntry;
 import com.denizenscript.denizen2core.commands.CommandQueue;
 import com.denizenscript.denizen2core.utilities.ErrorInducedException;
 import com.denizenscript.denizen2core.utilities.debugging.Debug;
+import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.entity.EntityMovesScriptEvent;
 import com.denizenscript.denizen2sponge.spongeevents.Denizen2SpongeReloadEvent;
 import com.denizenscript.denizen2sponge.spongescripts.AdvancementScript;
 import com.denizenscript.denizen2sponge.spongescripts.GameCommandScript;
+import com.denizenscript.denizen2sponge.utilities.DataKeys;
+import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.format.TextColors;
@@ -25,6 +29,10 @@ public class Denizen2SpongeImplementation extends Denizen2Implementation {
         AdvancementScript.currentAdvancementScripts.clear();
         Denizen2Sponge.itemScripts.clear();
         Denizen2Sponge.entityScripts.clear();
+        D2SpongeEventHelper.clearCompiledSwitches();
+        EntityMovesScriptEvent.trackers.clear();
+        DataKeys.clearCache();
+        Utilities.clearTypeCache();
     }
 
     @Override
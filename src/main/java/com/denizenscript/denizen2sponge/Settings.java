@@ -1,6 +1,7 @@
 package com.denizenscript.denizen2sponge;
 
 import com.denizenscript.denizen2core.tags.objects.BooleanTag;
+import com.denizenscript.denizen2core.tags.objects.NumberTag;
 
 public class Settings {
 
@@ -10,6 +11,12 @@ public class Settings {
         }, input).getInternal();
     }
 
+    private static double tryNumber(String input) {
+        return NumberTag.getFor((e) -> {
+            throw new RuntimeException("Invalid number config setting: " + e);
+        }, input).getInternal();
+    }
+
     public static boolean enforceLocale() {
         return tryBool(Denizen2Sponge.instance.config.getString("Enforce Locale", "true"));
     }
@@ -25,4 +32,20 @@ public class Settings {
     public static boolean noUnrelatedFiles() {
         return tryBool(Denizen2Sponge.instance.config.getString("Files.Advanced Protection", "true"));
     }
+
+    public static double queueTickBudget() {
+        return tryNumber(Denizen2Sponge.instance.config.getString("Queues.Tick Budget", "0"));
+    }
+
+    public static int queueMaxDeferredTicks() {
+        return (int) tryNumber(Denizen2Sponge.instance.config.getString("Queues.Max Deferred Ticks", "20"));
+    }
+
+    public static boolean serverFlagsSharded() {
+        return tryBool(Denizen2Sponge.instance.config.getString("Server Flags.Sharded", "false"));
+    }
+
+    public static double serverFlagShardIdleSeconds() {
+        return tryNumber(Denizen2Sponge.instance.config.getString("Server Flags.Shard Idle Seconds", "300"));
+    }
 }
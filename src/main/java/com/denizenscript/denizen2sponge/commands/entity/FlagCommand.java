@@ -6,21 +6,16 @@ import com.denizenscript.denizen2core.commands.CommandQueue;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.DurationTag;
 import com.denizenscript.denizen2core.tags.objects.MapTag;
-import com.denizenscript.denizen2core.tags.objects.TimeTag;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2core.utilities.debugging.ColorSet;
-import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
-import com.denizenscript.denizen2sponge.utilities.flags.FlagHelper;
-import com.denizenscript.denizen2sponge.utilities.flags.FlagMap;
-import com.denizenscript.denizen2sponge.utilities.flags.FlagMapDataImpl;
+import com.denizenscript.denizen2sponge.utilities.flags.EntityFlags;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagExpiry;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagIndex;
+import com.denizenscript.denizen2sponge.utilities.flags.ServerFlags;
 import org.spongepowered.api.entity.Entity;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.temporal.*;
 import java.util.Map;
-import java.util.Optional;
 
 public class FlagCommand extends AbstractCommand {
 
@@ -70,48 +65,49 @@ public class FlagCommand extends AbstractCommand {
         AbstractTagObject ato = entry.getArgumentObject(queue, 0);
         MapTag basic;
         Entity entity = null;
-        TimeTag tt = null;
+        long expires = FlagExpiry.NEVER;
         if (entry.namedArgs.containsKey("duration")) {
             DurationTag duration = DurationTag.getFor(queue.error, entry.getNamedArgumentObject(queue, "duration"));
-            LocalDateTime ldt = LocalDateTime.now(ZoneId.of("UTC")).plus((long) (duration.getInternal() * 1000), ChronoField.MILLI_OF_SECOND.getBaseUnit());
-            tt = new TimeTag(ldt);
+            expires = System.currentTimeMillis() + (long) (duration.getInternal() * 1000);
         }
         if (CoreUtilities.toLowerCase(ato.toString()).equals("server")) {
-            basic = Denizen2Sponge.instance.serverFlagMap;
+            basic = null;
         }
         else {
             EntityTag entityTag = EntityTag.getFor(queue.error, ato);
             entity = entityTag.getInternal();
-            Optional<FlagMap> fm = entity.get(FlagHelper.FLAGMAP);
-            if (fm.isPresent()) {
-                basic = fm.get().flags;
-            }
-            else {
-                basic = new MapTag();
-            }
+            basic = EntityFlags.getFlags(entity);
         }
         MapTag propertyMap = MapTag.getFor(queue.error, entry.getArgumentObject(queue, 1));
         for (Map.Entry<String, AbstractTagObject> dat : propertyMap.getInternal().entrySet()) {
             MapTag gen = new MapTag();
             gen.getInternal().put("value", dat.getValue());
-            if (tt != null) {
-                gen.getInternal().put("duration", tt);
+            String flagName = CoreUtilities.toLowerCase(dat.getKey());
+            if (expires != FlagExpiry.NEVER) {
+                gen.getInternal().put("duration", FlagExpiry.toTag(expires));
+                FlagExpiry.schedule(entity == null ? null : entity.getUniqueId(), flagName, expires);
+            }
+            if (basic == null) {
+                ServerFlags.setFlag(flagName, gen);
+            }
+            else {
+                basic.getInternal().put(flagName, gen);
+                FlagIndex.add(entity.getUniqueId(), flagName);
             }
-            basic.getInternal().put(CoreUtilities.toLowerCase(dat.getKey()), gen);
         }
         if (entity != null) {
-            entity.offer(new FlagMapDataImpl(new FlagMap(basic)));
+            EntityFlags.markDirty(entity);
             if (queue.shouldShowGood()) {
                 queue.outGood("Flagged the entity "
                         + ColorSet.emphasis + new EntityTag(entity).debug() + ColorSet.good
                         + " with the specified data... (" + propertyMap.debug() + ")"
-                        + (tt == null ? " For unlimited time. " : " Until time: " + tt.debug()));
+                        + (expires == FlagExpiry.NEVER ? " For unlimited time. " : " Until time: " + FlagExpiry.toTimeTag(expires).debug()));
             }
         }
         else {
             if (queue.shouldShowGood()) {
                 queue.outGood("Flagged the server with the specified data... (" + propertyMap.debug() + ")"
-                        + (tt == null ? " For unlimited time. " : " Until time: " + tt.debug()));
+                        + (expires == FlagExpiry.NEVER ? " For unlimited time. " : " Until time: " + FlagExpiry.toTimeTag(expires).debug()));
             }
         }
     }
@@ -187,7 +187,7 @@ public class SpawnCommand extends AbstractCommand {
         Sponge.getCauseStackManager().addContext(EventContextKeys.SPAWN_TYPE, cause);
         if (queue.shouldShowGood()) {
             queue.outGood("Spawning an entity "
-                    + (fromScript ? "from script " + ColorSet.emphasis + inputType : "of type " + ColorSet.emphasis + new EntityTypeTag(entType).debug())
+                    + (fromScript ? "from script " + ColorSet.emphasis + inputType : "of type " + ColorSet.emphasis + EntityTypeTag.getForType(entType).debug())
                     + ColorSet.good + (propertyMap == null ? "" : " with the following additional properties: "
                     + ColorSet.emphasis + new MapTag(propertyMap).debug() + ColorSet.good) + " at location "
                     + ColorSet.emphasis + locationTag.debug() + ColorSet.good + " and with cause "
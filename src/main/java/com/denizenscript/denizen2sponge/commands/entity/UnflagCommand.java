@@ -8,15 +8,12 @@ import com.denizenscript.denizen2core.tags.objects.ListTag;
 import com.denizenscript.denizen2core.tags.objects.MapTag;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2core.utilities.debugging.ColorSet;
-import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
-import com.denizenscript.denizen2sponge.utilities.flags.FlagHelper;
-import com.denizenscript.denizen2sponge.utilities.flags.FlagMap;
-import com.denizenscript.denizen2sponge.utilities.flags.FlagMapDataImpl;
+import com.denizenscript.denizen2sponge.utilities.flags.EntityFlags;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagIndex;
+import com.denizenscript.denizen2sponge.utilities.flags.ServerFlags;
 import org.spongepowered.api.entity.Entity;
 
-import java.util.Optional;
-
 public class UnflagCommand extends AbstractCommand {
 
     // <--[command]
@@ -63,24 +60,25 @@ public class UnflagCommand extends AbstractCommand {
         AbstractTagObject ato = entry.getArgumentObject(queue, 0);
         MapTag basic;
         if (CoreUtilities.toLowerCase(ato.toString()).equals("server")) {
-            basic = Denizen2Sponge.instance.serverFlagMap;
+            basic = null;
         }
         else {
             EntityTag entityTag = EntityTag.getFor(queue.error, ato);
             entity = entityTag.getInternal();
-            Optional<FlagMap> fm = entity.get(FlagHelper.FLAGMAP);
-            if (fm.isPresent()) {
-                basic = fm.get().flags;
+            basic = EntityFlags.getFlags(entity);
+        }
+        for (AbstractTagObject dat : toRemove.getInternal()) {
+            String flagName = CoreUtilities.toLowerCase(dat.toString());
+            if (basic == null) {
+                ServerFlags.removeFlag(flagName);
             }
             else {
-                basic = new MapTag();
+                basic.getInternal().remove(flagName);
+                FlagIndex.remove(entity.getUniqueId(), flagName);
             }
         }
-        for (AbstractTagObject dat : toRemove.getInternal()) {
-            basic.getInternal().remove(CoreUtilities.toLowerCase(dat.toString()));
-        }
         if (entity != null) {
-            entity.offer(new FlagMapDataImpl(new FlagMap(basic)));
+            EntityFlags.markDirty(entity);
             if (queue.shouldShowGood()) {
                 queue.outGood("Removed from the entity "
                         + ColorSet.emphasis + new EntityTag(entity).debug() + ColorSet.good
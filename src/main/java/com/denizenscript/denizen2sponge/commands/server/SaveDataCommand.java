@@ -3,7 +3,7 @@ package com.denizenscript.denizen2sponge.commands.server;
 import com.denizenscript.denizen2core.commands.AbstractCommand;
 import com.denizenscript.denizen2core.commands.CommandEntry;
 import com.denizenscript.denizen2core.commands.CommandQueue;
-import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.denizenscript.denizen2sponge.utilities.flags.ServerFlags;
 
 public class SaveDataCommand extends AbstractCommand {
 
@@ -45,7 +45,9 @@ public class SaveDataCommand extends AbstractCommand {
 
     @Override
     public void execute(CommandQueue queue, CommandEntry entry) {
-        Denizen2Sponge.instance.saveServerFlags();
+        // Changes are already journaled, so fold them into a fresh snapshot without holding up the server.
+        ServerFlags.flush();
+        ServerFlags.compact();
         if (queue.shouldShowGood()) {
             queue.outGood("Saved all data.");
         }
@@ -4,11 +4,11 @@ import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.IntegerTag;
 import com.denizenscript.denizen2core.tags.objects.ListTag;
-import com.denizenscript.denizen2core.tags.objects.MapTag;
 import com.denizenscript.denizen2core.utilities.Action;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2sponge.spongescripts.ItemScript;
 import com.denizenscript.denizen2sponge.tags.objects.*;
+import com.denizenscript.denizen2sponge.utilities.CuboidIndex;
 import com.denizenscript.denizen2sponge.utilities.UtilLocation;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import com.denizenscript.denizen2sponge.utilities.flags.FlagHelper;
@@ -18,62 +18,228 @@ import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.data.type.HandType;
 import org.spongepowered.api.entity.EntityType;
+import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.entity.living.player.gamemode.GameMode;
 import org.spongepowered.api.item.ItemType;
+import org.spongepowered.api.item.inventory.ItemStack;
+import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.storage.WorldProperties;
 import org.spongepowered.api.world.weather.Weather;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 public class D2SpongeEventHelper {
 
-    public static boolean checkBlockType(BlockType btype, ScriptEvent.ScriptEventData data, Action<String> error) {
-        return checkBlockType(btype, data, error, "type");
+    // Switch values are compiled into resolved sets the first time they are checked,
+    // keyed by their raw text, and thrown away on reload.
+
+    private static final HashMap<Class, HashMap<String, Set<CatalogType>>> catalogSwitches = new HashMap<>();
+
+    private static final HashMap<Class, HashMap<String, Set<String>>> catalogIdSwitches = new HashMap<>();
+
+    private static final HashMap<String, Set<UUID>> worldSwitches = new HashMap<>();
+
+    private static final HashMap<String, Set<String>> stringSwitches = new HashMap<>();
+
+    private static final HashMap<String, CuboidIndex> cuboidSwitches = new HashMap<>();
+
+    // Paths registered to each event through couldMatch, and the area indexes built from their cuboid switches.
+
+    private static final HashMap<String, List<ScriptEvent.ScriptEventData>> registeredPaths = new HashMap<>();
+
+    private static final HashMap<String, CuboidIndex> areaIndexes = new HashMap<>();
+
+    private static final HashMap<String, DispatchIndex> dispatchIndexes = new HashMap<>();
+
+    public static void clearCompiledSwitches() {
+        catalogSwitches.clear();
+        catalogIdSwitches.clear();
+        worldSwitches.clear();
+        stringSwitches.clear();
+        cuboidSwitches.clear();
+        registeredPaths.clear();
+        areaIndexes.clear();
+        dispatchIndexes.clear();
     }
 
-    public static boolean checkBlockType(BlockType btype, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
-        if (!data.switches.containsKey(tname)) {
-            return true;
+    /**
+     * Drops compiled cuboids in the world, so an unloaded world isn't held until the next reload.
+     * They're compiled again, against whatever world then has the name, the next time they're checked.
+     */
+    public static void forgetWorld(World world) {
+        cuboidSwitches.values().removeIf(cuboids -> cuboids.hasWorld(world.getUniqueId()));
+        areaIndexes.values().removeIf(index -> index.hasWorld(world.getUniqueId()));
+    }
+
+    public static Set<CatalogType> getCatalogTypes(Class clazz, String input, Action<String> error) {
+        HashMap<String, Set<CatalogType>> compiled = catalogSwitches.get(clazz);
+        if (compiled == null) {
+            compiled = new HashMap<>();
+            catalogSwitches.put(clazz, compiled);
         }
-        for (AbstractTagObject ato : ListTag.getFor(error, data.switches.get(tname)).getInternal()) {
-            if (BlockTypeTag.getFor(error, ato).getInternal().equals(btype)) {
-                return true;
+        Set<CatalogType> types = compiled.get(input);
+        if (types != null) {
+            return types;
+        }
+        types = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AbstractTagObject ato : ListTag.getFor(error, input).getInternal()) {
+            CatalogType type = (CatalogType) Utilities.getTypeWithDefaultPrefix(clazz, ato.toString());
+            if (type == null) {
+                error.run("Invalid " + clazz.getSimpleName() + " type: '" + ato.debug() + "'!");
+                return null;
             }
+            types.add(type);
         }
-        return false;
+        compiled.put(input, types);
+        return types;
     }
 
-    public static boolean checkEntityType(EntityType etype, ScriptEvent.ScriptEventData data, Action<String> error) {
-        return checkEntityType(etype, data, error, "type");
+    public static Set<String> getCatalogIds(Class clazz, String input, Action<String> error) {
+        HashMap<String, Set<String>> compiled = catalogIdSwitches.get(clazz);
+        if (compiled == null) {
+            compiled = new HashMap<>();
+            catalogIdSwitches.put(clazz, compiled);
+        }
+        Set<String> ids = compiled.get(input);
+        if (ids != null) {
+            return ids;
+        }
+        Set<CatalogType> types = getCatalogTypes(clazz, input, error);
+        if (types == null) {
+            return null;
+        }
+        ids = new HashSet<>();
+        for (CatalogType type : types) {
+            ids.add(Utilities.getIdWithoutDefaultPrefix(type.getId()));
+        }
+        compiled.put(input, ids);
+        return ids;
     }
 
-    public static boolean checkEntityType(EntityType etype, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
-        if (!data.switches.containsKey(tname)) {
-            return true;
+    public static Set<UUID> getWorlds(String input, Action<String> error) {
+        Set<UUID> worlds = worldSwitches.get(input);
+        if (worlds != null) {
+            return worlds;
         }
-        for (AbstractTagObject ato : ListTag.getFor(error, data.switches.get(tname)).getInternal()) {
-            if (EntityTypeTag.getFor(error, ato).getInternal().equals(etype)) {
-                return true;
+        worlds = new HashSet<>();
+        for (AbstractTagObject ato : ListTag.getFor(error, input).getInternal()) {
+            if (ato instanceof WorldTag) {
+                worlds.add(((WorldTag) ato).getInternal().getUniqueId());
+                continue;
             }
+            Optional<WorldProperties> props = Sponge.getServer().getWorldProperties(ato.toString());
+            if (!props.isPresent()) {
+                error.run("Invalid WorldTag input!");
+                return null;
+            }
+            worlds.add(props.get().getUniqueId());
         }
-        return false;
+        worldSwitches.put(input, worlds);
+        return worlds;
     }
 
-    public static boolean checkItemType(ItemType itype, ScriptEvent.ScriptEventData data, Action<String> error) {
-        return checkItemType(itype, data, error, "type");
+    public static Set<String> getStrings(String input, Action<String> error) {
+        Set<String> strings = stringSwitches.get(input);
+        if (strings != null) {
+            return strings;
+        }
+        strings = new HashSet<>();
+        for (AbstractTagObject ato : ListTag.getFor(error, input).getInternal()) {
+            strings.add(CoreUtilities.toLowerCase(ato.toString()));
+        }
+        stringSwitches.put(input, strings);
+        return strings;
     }
 
-    public static boolean checkItemType(ItemType itype, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
-        if (!data.switches.containsKey(tname)) {
-            return true;
+    public static CuboidIndex getCuboids(String input, Action<String> error) {
+        CuboidIndex cuboids = cuboidSwitches.get(input);
+        if (cuboids != null) {
+            return cuboids;
         }
-        for (AbstractTagObject ato : ListTag.getFor(error, data.switches.get(tname)).getInternal()) {
-            if (ItemTypeTag.getFor(error, ato).getInternal().equals(itype)) {
-                return true;
+        cuboids = new CuboidIndex();
+        for (AbstractTagObject ato : ListTag.getFor(error, input).getInternal()) {
+            CuboidTag cuboid = CuboidTag.getFor(error, ato);
+            if (cuboid == null) {
+                return null;
             }
+            cuboids.add(cuboid);
         }
-        return false;
+        cuboidSwitches.put(input, cuboids);
+        return cuboids;
+    }
+
+    public static void registerPath(String event, ScriptEvent.ScriptEventData data) {
+        List<ScriptEvent.ScriptEventData> paths = registeredPaths.get(event);
+        if (paths == null) {
+            paths = new ArrayList<>();
+            registeredPaths.put(event, paths);
+        }
+        paths.add(data);
+        areaIndexes.remove(event);
+        dispatchIndexes.remove(event);
+    }
+
+    public static List<ScriptEvent.ScriptEventData> getRegisteredPaths(String event) {
+        List<ScriptEvent.ScriptEventData> paths = registeredPaths.get(event);
+        return paths == null ? Collections.emptyList() : paths;
+    }
+
+    public static CuboidIndex getAreaIndex(String event, Action<String> error) {
+        CuboidIndex index = areaIndexes.get(event);
+        if (index != null) {
+            return index;
+        }
+        index = new CuboidIndex();
+        Set<String> inputs = new HashSet<>();
+        for (ScriptEvent.ScriptEventData data : getRegisteredPaths(event)) {
+            String input = data.switches.get("cuboid");
+            if (input == null || !inputs.add(input)) {
+                continue;
+            }
+            CuboidIndex cuboids = getCuboids(input, error);
+            if (cuboids == null) {
+                continue;
+            }
+            for (CuboidTag cuboid : cuboids.cuboids) {
+                index.add(cuboid);
+            }
+        }
+        areaIndexes.put(event, index);
+        return index;
+    }
+
+    public static DispatchIndex getDispatchIndex(String event, DispatchIndex.Key[] keys, Action<String> error) {
+        DispatchIndex index = dispatchIndexes.get(event);
+        if (index == null) {
+            index = new DispatchIndex(keys, getRegisteredPaths(event), error);
+            dispatchIndexes.put(event, index);
+        }
+        return index;
+    }
+
+    public static boolean checkBlockType(BlockType btype, ScriptEvent.ScriptEventData data, Action<String> error) {
+        return checkBlockType(btype, data, error, "type");
+    }
+
+    public static boolean checkBlockType(BlockType btype, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        return checkCatalogType(BlockType.class, btype, data, error, tname);
+    }
+
+    public static boolean checkEntityType(EntityType etype, ScriptEvent.ScriptEventData data, Action<String> error) {
+        return checkEntityType(etype, data, error, "type");
+    }
+
+    public static boolean checkEntityType(EntityType etype, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        return checkCatalogType(EntityType.class, etype, data, error, tname);
+    }
+
+    public static boolean checkItemType(ItemType itype, ScriptEvent.ScriptEventData data, Action<String> error) {
+        return checkItemType(itype, data, error, "type");
+    }
+
+    public static boolean checkItemType(ItemType itype, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        return checkCatalogType(ItemType.class, itype, data, error, tname);
     }
 
     public static boolean checkWorld(World world, ScriptEvent.ScriptEventData data, Action<String> error) {
@@ -81,27 +247,20 @@ public class D2SpongeEventHelper {
     }
 
     public static boolean checkWorld(World world, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
-        if (!data.switches.containsKey(tname)) {
+        String input = data.switches.get(tname);
+        if (input == null) {
             return true;
         }
-        for (AbstractTagObject ato : ListTag.getFor(error, data.switches.get(tname)).getInternal()) {
-            if (WorldTag.getFor(error, ato).getInternal().equals(world)) {
-                return true;
-            }
-        }
-        return false;
+        Set<UUID> worlds = getWorlds(input, error);
+        return worlds != null && worlds.contains(world.getUniqueId());
     }
 
     public static boolean checkString(String inpStr, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
-        if (!data.switches.containsKey(tname)) {
+        String input = data.switches.get(tname);
+        if (input == null) {
             return true;
         }
-        for (AbstractTagObject ato : ListTag.getFor(error, data.switches.get(tname)).getInternal()) {
-            if (CoreUtilities.toLowerCase(ato.toString()).equals(inpStr)) {
-                return true;
-            }
-        }
-        return false;
+        return getStrings(input, error).contains(inpStr);
     }
 
     public static boolean checkCuboid(UtilLocation location, ScriptEvent.ScriptEventData data, Action<String> error) {
@@ -109,15 +268,31 @@ public class D2SpongeEventHelper {
     }
 
     public static boolean checkCuboid(UtilLocation location, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
-        if (!data.switches.containsKey(tname)) {
+        String input = data.switches.get(tname);
+        if (input == null) {
             return true;
         }
-        for (AbstractTagObject ato : ListTag.getFor(error, data.switches.get(tname)).getInternal()) {
-            if (CuboidTag.getFor(error, ato).contains(location)) {
-                return true;
-            }
+        CuboidIndex cuboids = getCuboids(input, error);
+        return cuboids != null && cuboids.contains(location);
+    }
+
+    public static boolean checkCuboid(Location<World> location, ScriptEvent.ScriptEventData data, Action<String> error) {
+        return checkCuboid(location, data, error, "cuboid");
+    }
+
+    public static boolean checkCuboid(Location<World> location, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        if (!data.switches.containsKey(tname)) {
+            return true;
         }
-        return false;
+        return checkCuboid(new UtilLocation(location.getPosition(), location.getExtent()), data, error, tname);
+    }
+
+    public static boolean checkWeather(Weather weather, ScriptEvent.ScriptEventData data, Action<String> error) {
+        return checkWeather(weather, data, error, "weather");
+    }
+
+    public static boolean checkWeather(Weather weather, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        return checkCatalogType(Weather.class, weather, data, error, tname);
     }
 
     public static boolean checkWeather(String weather, ScriptEvent.ScriptEventData data, Action<String> error) {
@@ -128,6 +303,14 @@ public class D2SpongeEventHelper {
         return checkCatalogType(Weather.class, weather, data, error, tname);
     }
 
+    public static boolean checkHandType(HandType hand, ScriptEvent.ScriptEventData data, Action<String> error) {
+        return checkHandType(hand, data, error, "hand");
+    }
+
+    public static boolean checkHandType(HandType hand, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        return checkCatalogType(HandType.class, hand, data, error, tname);
+    }
+
     public static boolean checkHandType(String hand, ScriptEvent.ScriptEventData data, Action<String> error) {
         return checkHandType(hand, data, error, "hand");
     }
@@ -136,6 +319,14 @@ public class D2SpongeEventHelper {
         return checkCatalogType(HandType.class, hand, data, error, tname);
     }
 
+    public static boolean checkGamemode(GameMode mode, ScriptEvent.ScriptEventData data, Action<String> error) {
+        return checkGamemode(mode, data, error, "gamemode");
+    }
+
+    public static boolean checkGamemode(GameMode mode, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        return checkCatalogType(GameMode.class, mode, data, error, tname);
+    }
+
     public static boolean checkGamemode(String mode, ScriptEvent.ScriptEventData data, Action<String> error) {
         return checkGamemode(mode, data, error, "gamemode");
     }
@@ -144,21 +335,22 @@ public class D2SpongeEventHelper {
         return checkCatalogType(GameMode.class, mode, data, error, tname);
     }
 
-    public static boolean checkCatalogType(Class clazz, String type, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
-        if (!data.switches.containsKey(tname)) {
+    public static boolean checkCatalogType(Class clazz, CatalogType type, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        String input = data.switches.get(tname);
+        if (input == null) {
             return true;
         }
-        for (AbstractTagObject ato : ListTag.getFor(error, data.switches.get(tname)).getInternal()) {
-            Optional<CatalogType> opt = Sponge.getRegistry().getType(clazz, ato.toString());
-            if (!opt.isPresent()) {
-                error.run("Invalid " + clazz.getSimpleName() + " type: '" + ato.debug() + "'!");
-                return false;
-            }
-            else if (Utilities.getIdWithoutDefaultPrefix(opt.get().getId()).equals(type)) {
-                return true;
-            }
+        Set<CatalogType> types = getCatalogTypes(clazz, input, error);
+        return types != null && types.contains(type);
+    }
+
+    public static boolean checkCatalogType(Class clazz, String type, ScriptEvent.ScriptEventData data, Action<String> error, String tname) {
+        String input = data.switches.get(tname);
+        if (input == null) {
+            return true;
         }
-        return false;
+        Set<String> ids = getCatalogIds(clazz, input, error);
+        return ids != null && ids.contains(type);
     }
 
     // <--[explanation]
@@ -181,6 +373,13 @@ public class D2SpongeEventHelper {
     // Script: (ScriptTag) checks if the item was created by a specific script.
     // -->
 
+    public static boolean checkItem(Player player, HandType hand, ScriptEvent.ScriptEventData data, Action<String> error) {
+        if (!data.switches.containsKey("with_item")) {
+            return true;
+        }
+        return checkItem(new ItemTag(player.getItemInHand(hand).orElse(ItemStack.empty())), data, error);
+    }
+
     public static boolean checkItem(ItemTag itm, ScriptEvent.ScriptEventData data, Action<String> error) {
         return checkItem(itm, data, error, "with_item");
     }
@@ -221,17 +420,12 @@ public class D2SpongeEventHelper {
             }
             else if (t.equals("flagged")) {
                 boolean poss = false;
-                MapTag flags;
                 Optional<FlagMap> fm = itm.getInternal().get(FlagHelper.FLAGMAP);
                 if (fm.isPresent()) {
-                    flags = fm.get().flags;
-                }
-                else {
-                    flags = new MapTag();
-                }
-                for (AbstractTagObject ato_sub : ListTag.getFor(error, v).getInternal()) {
-                    if (flags.getInternal().containsKey(CoreUtilities.toLowerCase(ato_sub.toString()))) {
-                        poss = true;
+                    for (AbstractTagObject ato_sub : ListTag.getFor(error, v).getInternal()) {
+                        if (fm.get().hasFlag(CoreUtilities.toLowerCase(ato_sub.toString()))) {
+                            poss = true;
+                        }
                     }
                 }
                 if (!poss) {
@@ -0,0 +1,99 @@
+package com.denizenscript.denizen2sponge.events;
+
+import com.denizenscript.denizen2core.events.ScriptEvent;
+import com.denizenscript.denizen2core.utilities.Action;
+import org.spongepowered.api.world.World;
+
+import java.util.*;
+
+/**
+ * Maps the values of an event's type-like switches to the script paths that could accept them.
+ * Firing an event only needs to look at the paths returned by getCandidates, rather than every registered path.
+ */
+public class DispatchIndex {
+
+    public static class Key {
+
+        public final String name;
+
+        // World.class indexes world UUIDs, any other class indexes catalog types of that class.
+        public final Class type;
+
+        public Key(String name, Class type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    private final Key[] keys;
+
+    private final List<HashMap<Object, Set<ScriptEvent.ScriptEventData>>> byValue = new ArrayList<>();
+
+    // Paths without the switch (or with an invalid one, so that matches() still reports the error).
+    private final List<Set<ScriptEvent.ScriptEventData>> unswitched = new ArrayList<>();
+
+    public DispatchIndex(Key[] keys, List<ScriptEvent.ScriptEventData> paths, Action<String> error) {
+        this.keys = keys;
+        for (Key key : keys) {
+            HashMap<Object, Set<ScriptEvent.ScriptEventData>> values = new HashMap<>();
+            Set<ScriptEvent.ScriptEventData> any = newPathSet();
+            for (ScriptEvent.ScriptEventData data : paths) {
+                Collection<?> compiled = compile(key, data, error);
+                if (compiled == null) {
+                    any.add(data);
+                    continue;
+                }
+                for (Object value : compiled) {
+                    Set<ScriptEvent.ScriptEventData> set = values.get(value);
+                    if (set == null) {
+                        set = newPathSet();
+                        values.put(value, set);
+                    }
+                    set.add(data);
+                }
+            }
+            byValue.add(values);
+            unswitched.add(any);
+        }
+    }
+
+    private static Set<ScriptEvent.ScriptEventData> newPathSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static Collection<?> compile(Key key, ScriptEvent.ScriptEventData data, Action<String> error) {
+        String input = data.switches.get(key.name);
+        if (input == null) {
+            return null;
+        }
+        if (key.type == World.class) {
+            return D2SpongeEventHelper.getWorlds(input, error);
+        }
+        return D2SpongeEventHelper.getCatalogTypes(key.type, input, error);
+    }
+
+    /**
+     * Returns the paths that could match the given switch values, in the same order as the index keys.
+     * World values are given as the world's UUID, other values as their CatalogType.
+     */
+    public Set<ScriptEvent.ScriptEventData> getCandidates(Object... values) {
+        Set<ScriptEvent.ScriptEventData> result = newPathSet();
+        for (int i = 0; i < keys.length; i++) {
+            Set<ScriptEvent.ScriptEventData> matching = byValue.get(i).get(values[i]);
+            Set<ScriptEvent.ScriptEventData> any = unswitched.get(i);
+            if (i == 0) {
+                if (matching != null) {
+                    result.addAll(matching);
+                }
+                result.addAll(any);
+            }
+            else {
+                result.removeIf(data -> !any.contains(data) && (matching == null || !matching.contains(data)));
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+}
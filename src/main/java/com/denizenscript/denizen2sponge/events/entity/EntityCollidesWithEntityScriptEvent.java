@@ -7,7 +7,7 @@ import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.event.Listener;
@@ -62,8 +62,7 @@ public class EntityCollidesWithEntityScriptEvent extends ScriptEvent {
         return D2SpongeEventHelper.checkEntityType(ent.getType(), data, this::error, "type")
                 && D2SpongeEventHelper.checkWorld(world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid(new LocationTag(loc).getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
     }
 
     public ListTag entities;
@@ -97,7 +96,7 @@ public class EntityCollidesWithEntityScriptEvent extends ScriptEvent {
         }
         event.entities = list;
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
@@ -5,10 +5,12 @@ import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.NumberTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.*;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.entity.EntityType;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.cause.entity.damage.DamageFunction;
 import org.spongepowered.api.event.entity.DamageEntityEvent;
@@ -16,6 +18,7 @@ import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public class EntityDamagedScriptEvent extends ScriptEvent {
 
@@ -52,21 +55,34 @@ public class EntityDamagedScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("entity damaged");
+        if (!data.eventPath.startsWith("entity damaged")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
+        if (!candidates.contains(data)) {
+            return false;
+        }
         Entity ent = entity.getInternal();
         Location<World> loc = ent.getLocation();
         World world = loc.getExtent();
         return D2SpongeEventHelper.checkEntityType(ent.getType(), data, this::error)
                 && D2SpongeEventHelper.checkWorld(world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid((new LocationTag(loc)).getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
     }
 
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("type", EntityType.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public Set<ScriptEventData> candidates;
+
     public EntityTag entity;
 
     public NumberTag damage;
@@ -94,13 +110,20 @@ public class EntityDamagedScriptEvent extends ScriptEvent {
 
     @Listener
     public void onEntityDamaged(DamageEntityEvent evt) {
+        Entity ent = evt.getTargetEntity();
+        Set<ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                .getCandidates(ent.getType(), ent.getWorld().getUniqueId());
+        if (candidates.isEmpty()) {
+            return;
+        }
         EntityDamagedScriptEvent event = (EntityDamagedScriptEvent) clone();
+        event.candidates = candidates;
         event.internal = evt;
-        event.entity = new EntityTag(evt.getTargetEntity());
+        event.entity = new EntityTag(ent);
         event.damage = new NumberTag(evt.getFinalDamage());
         event.cancelled = evt.isCancelled();
         // TODO: Cause viewing
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
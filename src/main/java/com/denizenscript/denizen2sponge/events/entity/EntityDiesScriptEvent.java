@@ -8,7 +8,7 @@ import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
 import com.denizenscript.denizen2sponge.tags.objects.FormattedTextTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.event.Listener;
@@ -65,8 +65,7 @@ public class EntityDiesScriptEvent extends ScriptEvent {
         return D2SpongeEventHelper.checkEntityType(ent.getType(), data, this::error)
                 && D2SpongeEventHelper.checkWorld(world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid((new LocationTag(loc)).getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
     }
 
     public EntityTag entity;
@@ -99,7 +98,7 @@ public class EntityDiesScriptEvent extends ScriptEvent {
         event.internal = evt;
         event.entity = new EntityTag(evt.getTargetEntity());
         event.message = new FormattedTextTag(evt.getMessage());
-        event.run();
+        Timings.runEvent(event);
     }
 
     @Override
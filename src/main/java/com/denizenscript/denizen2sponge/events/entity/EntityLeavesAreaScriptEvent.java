@@ -2,18 +2,20 @@ package com.denizenscript.denizen2sponge.events.entity;
 
 import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
-import com.denizenscript.denizen2core.tags.objects.ListTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.CuboidTag;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.CuboidIndex;
+import com.denizenscript.denizen2sponge.utilities.Timings;
+import com.denizenscript.denizen2sponge.utilities.UtilLocation;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.entity.MoveEntityEvent;
 
 import java.util.HashMap;
+import java.util.List;
 
 public class EntityLeavesAreaScriptEvent extends ScriptEvent {
 
@@ -50,17 +52,24 @@ public class EntityLeavesAreaScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("entity leaves area");
+        if (!data.eventPath.startsWith("entity leaves area")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
-        Boolean fromArea = false;
+        boolean fromArea = false;
         if (data.switches.containsKey("cuboid")) {
-            for (AbstractTagObject ato : ListTag.getFor(this::error, data.switches.get("cuboid")).getInternal()) {
-                CuboidTag cu = CuboidTag.getFor(this::error, ato);
-                if (cu.contains(fromPosition.getInternal()) && !cu.contains(toPosition.getInternal())) {
-                    fromArea = true;
+            CuboidIndex cuboids = D2SpongeEventHelper.getCuboids(data.switches.get("cuboid"), this::error);
+            if (cuboids != null) {
+                for (CuboidTag cu : cuboids.cuboids) {
+                    if (left.contains(cu)) {
+                        fromArea = true;
+                        break;
+                    }
                 }
             }
         }
@@ -76,8 +85,7 @@ public class EntityLeavesAreaScriptEvent extends ScriptEvent {
             error("Please specify an area!");
         }
         return fromArea && D2SpongeEventHelper.checkEntityType(entity.getInternal().getType(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                entity.getInternal().getLocation().getExtent().getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(entity.getInternal().getLocation().getExtent().getWeather(), data, this::error);
     }
 
     public EntityTag entity;
@@ -86,6 +94,8 @@ public class EntityLeavesAreaScriptEvent extends ScriptEvent {
 
     public LocationTag fromPosition;
 
+    public List<CuboidTag> left;
+
     public MoveEntityEvent internal;
 
     @Override
@@ -109,13 +119,20 @@ public class EntityLeavesAreaScriptEvent extends ScriptEvent {
 
     @Listener
     public void onEntityLeavesArea(MoveEntityEvent evt) {
+        UtilLocation from = new UtilLocation(evt.getFromTransform().getPosition(), evt.getFromTransform().getExtent());
+        UtilLocation to = new UtilLocation(evt.getToTransform().getPosition(), evt.getToTransform().getExtent());
+        List<CuboidTag> left = D2SpongeEventHelper.getAreaIndex(getName(), this::error).getEntered(to, from);
+        if (left.isEmpty()) {
+            return;
+        }
         EntityLeavesAreaScriptEvent event = (EntityLeavesAreaScriptEvent) clone();
         event.internal = evt;
+        event.left = left;
         event.entity = new EntityTag(evt.getTargetEntity());
-        event.toPosition = new LocationTag(evt.getToTransform().getLocation());
-        event.fromPosition = new LocationTag(evt.getFromTransform().getLocation());
+        event.toPosition = new LocationTag(to);
+        event.fromPosition = new LocationTag(from);
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
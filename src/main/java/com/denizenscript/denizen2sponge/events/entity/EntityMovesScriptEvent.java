@@ -2,19 +2,28 @@ package com.denizenscript.denizen2sponge.events.entity;
 
 import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
+import com.denizenscript.denizen2core.tags.objects.NumberTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.PositionTracker;
+import com.denizenscript.denizen2sponge.utilities.Timings;
+import com.flowpowered.math.vector.Vector3d;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.entity.EntityType;
 import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.entity.DestructEntityEvent;
 import org.spongepowered.api.event.entity.MoveEntityEvent;
-import org.spongepowered.api.world.Location;
+import org.spongepowered.api.event.network.ClientConnectionEvent;
 import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.UUID;
 
 public class EntityMovesScriptEvent extends ScriptEvent {
 
@@ -23,7 +32,7 @@ public class EntityMovesScriptEvent extends ScriptEvent {
     // @Events
     // entity moves
     //
-    // @Updated 2016/10/25
+    // @Updated 2026/10/18
     //
     // @Group Entity
     //
@@ -35,6 +44,8 @@ public class EntityMovesScriptEvent extends ScriptEvent {
     // @Switch world (WorldTag) checks the world.
     // @Switch cuboid (CuboidTag) checks the cuboid area.
     // @Switch weather (TextTag) checks the weather.
+    // @Switch threshold (TextTag) "block" to only fire when the entity moves into a different block,
+    // or a NumberTag distance the entity must have moved since this event last fired for it.
     //
     // @Context
     // entity (EntityTag) returns the entity that moved.
@@ -54,19 +65,69 @@ public class EntityMovesScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("entity moves");
+        if (!data.eventPath.startsWith("entity moves")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
-        Entity ent = entity.getInternal();
-        Location<World> loc = ent.getLocation();
-        World world = loc.getExtent();
+        Entity ent = internal.getTargetEntity();
+        return candidates.contains(data) && matches(data, ent, positionChanged, blockChanged)
+                && D2SpongeEventHelper.checkCuboid(ent.getLocation(), data, this::error)
+                && checkDistance(data, ent);
+    }
+
+    private boolean matches(ScriptEventData data, Entity ent, boolean positionChanged, boolean blockChanged) {
+        String threshold = data.switches.get("threshold");
+        if (threshold != null && !(threshold.equalsIgnoreCase("block") ? blockChanged : positionChanged)) {
+            return false;
+        }
+        World world = ent.getWorld();
         return D2SpongeEventHelper.checkEntityType(ent.getType(), data, this::error)
                 && D2SpongeEventHelper.checkWorld(world, data, this::error)
-                && D2SpongeEventHelper.checkCuboid((new LocationTag(loc)).getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
+    }
+
+    // Last fired position of each entity, per path with a distance threshold.
+    // Paths whose threshold isn't a valid number map to null, so the error is only reported once.
+    public static final IdentityHashMap<ScriptEventData, PositionTracker> trackers = new IdentityHashMap<>();
+
+    private boolean checkDistance(ScriptEventData data, Entity ent) {
+        String threshold = data.switches.get("threshold");
+        if (threshold == null || threshold.equalsIgnoreCase("block")) {
+            return true;
+        }
+        PositionTracker tracker = trackers.get(data);
+        if (tracker == null && !trackers.containsKey(data)) {
+            NumberTag distance = NumberTag.getFor(this::error, threshold);
+            tracker = distance == null ? null : new PositionTracker(distance.getInternal());
+            trackers.put(data, tracker);
+        }
+        if (tracker == null) {
+            return false;
+        }
+        Vector3d to = internal.getToTransform().getPosition();
+        UUID world = internal.getToTransform().getExtent().getUniqueId();
+        return tracker.moveIfFurther(ent.getUniqueId(), world, to.getX(), to.getY(), to.getZ());
+    }
+
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("type", EntityType.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public Set<ScriptEventData> candidates;
+
+    public boolean couldMatchAny(Set<ScriptEventData> candidates, Entity ent, boolean positionChanged, boolean blockChanged) {
+        for (ScriptEventData data : candidates) {
+            if (matches(data, ent, positionChanged, blockChanged)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public EntityTag entity;
@@ -81,6 +142,10 @@ public class EntityMovesScriptEvent extends ScriptEvent {
 
     public MoveEntityEvent internal;
 
+    public boolean positionChanged;
+
+    public boolean blockChanged;
+
     @Override
     public void enable() {
         Sponge.getEventManager().registerListeners(Denizen2Sponge.instance, this);
@@ -94,6 +159,13 @@ public class EntityMovesScriptEvent extends ScriptEvent {
     @Override
     public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
         HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        if (entity == null) {
+            entity = new EntityTag(internal.getTargetEntity());
+            toPosition = new LocationTag(internal.getToTransform().getLocation());
+            toRotation = new LocationTag(internal.getToTransform().getRotation());
+            fromPosition = new LocationTag(internal.getFromTransform().getLocation());
+            fromRotation = new LocationTag(internal.getFromTransform().getRotation());
+        }
         defs.put("entity", entity);
         defs.put("to_position", toPosition);
         defs.put("to_rotation", toRotation);
@@ -104,20 +176,50 @@ public class EntityMovesScriptEvent extends ScriptEvent {
 
     @Listener
     public void onEntityMoves(MoveEntityEvent evt) {
+        Vector3d from = evt.getFromTransform().getPosition();
+        Vector3d to = evt.getToTransform().getPosition();
+        boolean positionChanged = !from.equals(to);
+        boolean blockChanged = positionChanged && (Math.floor(from.getX()) != Math.floor(to.getX())
+                || Math.floor(from.getY()) != Math.floor(to.getY()) || Math.floor(from.getZ()) != Math.floor(to.getZ()));
+        Entity ent = evt.getTargetEntity();
+        Set<ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                .getCandidates(ent.getType(), ent.getWorld().getUniqueId());
+        if (!couldMatchAny(candidates, ent, positionChanged, blockChanged)) {
+            return;
+        }
         EntityMovesScriptEvent event = (EntityMovesScriptEvent) clone();
+        event.candidates = candidates;
         event.internal = evt;
-        event.entity = new EntityTag(evt.getTargetEntity());
-        event.toPosition = new LocationTag(evt.getToTransform().getLocation());
-        event.toRotation = new LocationTag(evt.getToTransform().getRotation());
-        event.fromPosition = new LocationTag(evt.getFromTransform().getLocation());
-        event.fromRotation = new LocationTag(evt.getFromTransform().getRotation());
+        event.positionChanged = positionChanged;
+        event.blockChanged = blockChanged;
         event.cancelled = evt.isCancelled();
         // TODO: Cause viewing
-        event.run();
+        Timings.runEvent(event);
         // TODO: Set To Transform determinations.
         evt.setCancelled(event.cancelled);
     }
 
+    @Listener
+    public void onEntityRemoved(DestructEntityEvent evt) {
+        forget(evt.getTargetEntity());
+    }
+
+    @Listener
+    public void onPlayerDisconnects(ClientConnectionEvent.Disconnect evt) {
+        forget(evt.getTargetEntity());
+    }
+
+    public void forget(Entity ent) {
+        if (trackers.isEmpty()) {
+            return;
+        }
+        for (PositionTracker tracker : trackers.values()) {
+            if (tracker != null) {
+                tracker.remove(ent.getUniqueId());
+            }
+        }
+    }
+
     @Override
     public void applyDetermination(boolean errors, String determination, AbstractTagObject value) {
         super.applyDetermination(errors, determination, value);
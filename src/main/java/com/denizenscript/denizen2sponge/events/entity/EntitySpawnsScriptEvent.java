@@ -5,11 +5,14 @@ import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.TextTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.entity.EntityType;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.cause.EventContextKeys;
 import org.spongepowered.api.event.cause.entity.spawn.SpawnType;
@@ -18,6 +21,7 @@ import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public class EntitySpawnsScriptEvent extends ScriptEvent {
 
@@ -67,23 +71,36 @@ public class EntitySpawnsScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEvent.ScriptEventData data) {
-        return data.eventPath.startsWith("entity spawns");
+        if (!data.eventPath.startsWith("entity spawns")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEvent.ScriptEventData data) {
+        if (!candidates.contains(data)) {
+            return false;
+        }
         Entity ent = entity.getInternal();
         Location<World> loc = ent.getLocation();
         World world = loc.getExtent();
         return D2SpongeEventHelper.checkEntityType(ent.getType(), data, this::error)
                 && D2SpongeEventHelper.checkWorld(world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid((new LocationTag(loc)).getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error)
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error)
                 && D2SpongeEventHelper.checkCatalogType(
                 SpawnType.class, cause.toString(), data, this::error, "cause");
     }
 
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("type", EntityType.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public Set<ScriptEvent.ScriptEventData> candidates;
+
     public EntityTag entity;
 
     public TextTag cause;
@@ -111,13 +128,19 @@ public class EntitySpawnsScriptEvent extends ScriptEvent {
     @Listener
     public void onEntiySpawns(SpawnEntityEvent evt) {
         for (Entity ent : evt.getEntities()) {
+            Set<ScriptEvent.ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                    .getCandidates(ent.getType(), ent.getWorld().getUniqueId());
+            if (candidates.isEmpty()) {
+                continue;
+            }
             EntitySpawnsScriptEvent event = (EntitySpawnsScriptEvent) clone();
+            event.candidates = candidates;
             event.internal = evt;
             event.entity = new EntityTag(ent);
             event.cause = new TextTag(Utilities.getIdWithoutDefaultPrefix(
                     evt.getContext().get(EventContextKeys.SPAWN_TYPE).get().getId()));
             event.cancelled = evt.isCancelled();
-            event.run();
+            Timings.runEvent(event);
             evt.setCancelled(event.cancelled);
         }
     }
@@ -7,8 +7,8 @@ import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.BlockTypeTag;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.UtilLocation;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.event.Listener;
@@ -66,8 +66,7 @@ public class ProjectileImpactsBlockScriptEvent extends ScriptEvent {
                 && D2SpongeEventHelper.checkBlockType(material.getInternal(), data, this::error, "block_type")
                 && D2SpongeEventHelper.checkWorld(world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid(loc, data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
     }
 
     public EntityTag entity;
@@ -107,12 +106,12 @@ public class ProjectileImpactsBlockScriptEvent extends ScriptEvent {
         ProjectileImpactsBlockScriptEvent event = (ProjectileImpactsBlockScriptEvent) clone();
         event.internal = evt;
         event.entity = new EntityTag((Entity) evt.getSource());
-        event.material = new BlockTypeTag(evt.getTargetBlock().getType());
+        event.material = BlockTypeTag.getForType(evt.getTargetBlock().getType());
         event.location = new LocationTag(evt.getTargetLocation());
         event.impact_point = new LocationTag(evt.getImpactPoint());
         event.impact_normal = new LocationTag(evt.getTargetSide().asOffset());
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
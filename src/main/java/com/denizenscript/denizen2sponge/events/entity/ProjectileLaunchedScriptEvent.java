@@ -6,7 +6,7 @@ import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.event.Listener;
@@ -64,8 +64,7 @@ public class ProjectileLaunchedScriptEvent extends ScriptEvent {
                 && D2SpongeEventHelper.checkEntityType(shooterInternal.getType(), data, this::error, "shooter_type")
                 && D2SpongeEventHelper.checkWorld(world, data, this::error) && D2SpongeEventHelper.checkCuboid(
                 new LocationTag(shooterInternal.getLocation()).getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
     }
 
     public EntityTag entity;
@@ -99,7 +98,7 @@ public class ProjectileLaunchedScriptEvent extends ScriptEvent {
         event.entity = new EntityTag(evt.getTargetEntity());
         event.shooter = new EntityTag((Entity) evt.getSource());
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
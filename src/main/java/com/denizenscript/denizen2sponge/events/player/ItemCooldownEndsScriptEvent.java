@@ -7,6 +7,7 @@ import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.ItemTypeTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.Player;
@@ -93,8 +94,8 @@ public class ItemCooldownEndsScriptEvent extends ScriptEvent {
         ItemCooldownEndsScriptEvent event = (ItemCooldownEndsScriptEvent) clone();
         event.internal = evt;
         event.player = new PlayerTag(player);
-        event.item_type = new ItemTypeTag(evt.getItemType());
-        event.run();
+        event.item_type = ItemTypeTag.getForType(evt.getItemType());
+        Timings.runEvent(event);
     }
 
     @Override
@@ -8,6 +8,7 @@ import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.ItemTypeTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.Player;
@@ -102,11 +103,11 @@ public class ItemCooldownStartsScriptEvent extends ScriptEvent {
         ItemCooldownStartsScriptEvent event = (ItemCooldownStartsScriptEvent) clone();
         event.internal = evt;
         event.player = new PlayerTag(player);
-        event.item_type = new ItemTypeTag(evt.getItemType());
+        event.item_type = ItemTypeTag.getForType(evt.getItemType());
         event.new_cooldown = new DurationTag(evt.getNewCooldown() * (1.0 / 20.0));
         event.old_cooldown = new DurationTag(evt.getStartingCooldown().orElse(0) * (1.0 / 20.0));
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
@@ -4,13 +4,15 @@ import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.BlockTypeTag;
 import com.denizenscript.denizen2sponge.tags.objects.ItemTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockSnapshot;
+import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.data.Transaction;
 import org.spongepowered.api.data.type.HandTypes;
 import org.spongepowered.api.entity.living.player.Player;
@@ -18,8 +20,11 @@ import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.block.ChangeBlockEvent;
 import org.spongepowered.api.event.filter.cause.Root;
 import org.spongepowered.api.item.inventory.ItemStack;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public class PlayerBreaksBlockScriptEvent extends ScriptEvent {
 
@@ -58,20 +63,33 @@ public class PlayerBreaksBlockScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("player breaks block");
+        if (!data.eventPath.startsWith("player breaks block")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
+        if (!candidates.contains(data)) {
+            return false;
+        }
         return D2SpongeEventHelper.checkBlockType(material.getInternal(), data, this::error)
                 && D2SpongeEventHelper.checkItem(new ItemTag(player.getInternal()
                 .getItemInHand(HandTypes.MAIN_HAND).orElse(ItemStack.empty())), data, this::error)
                 && D2SpongeEventHelper.checkWorld(location.getInternal().world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid(location.getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                location.getInternal().world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(location.getInternal().world.getWeather(), data, this::error);
     }
 
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("type", BlockType.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public Set<ScriptEventData> candidates;
+
     public PlayerTag player;
 
     public BlockTypeTag material;
@@ -104,14 +122,21 @@ public class PlayerBreaksBlockScriptEvent extends ScriptEvent {
     @Listener
     public void onBlockBroken(ChangeBlockEvent.Break evt, @Root Player player) {
         for (Transaction<BlockSnapshot> block : evt.getTransactions()) {
+            Location<World> location = block.getOriginal().getLocation().get();
+            Set<ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                    .getCandidates(block.getOriginal().getState().getType(), location.getExtent().getUniqueId());
+            if (candidates.isEmpty()) {
+                continue;
+            }
             PlayerBreaksBlockScriptEvent event = (PlayerBreaksBlockScriptEvent) clone();
+            event.candidates = candidates;
             event.internal = evt;
             event.block = block;
             event.player = new PlayerTag(player);
-            event.material = new BlockTypeTag(block.getOriginal().getState().getType());
-            event.location = new LocationTag(block.getOriginal().getLocation().get());
+            event.material = BlockTypeTag.getForType(block.getOriginal().getState().getType());
+            event.location = new LocationTag(location);
             event.cancelled = evt.isCancelled();
-            event.run();
+            Timings.runEvent(event);
             evt.setCancelled(event.cancelled);
         }
     }
@@ -5,8 +5,10 @@ import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.TextTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.Player;
@@ -17,6 +19,7 @@ import org.spongepowered.api.event.filter.cause.Root;
 import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public class PlayerChangesGamemodeScriptEvent extends ScriptEvent {
 
@@ -55,21 +58,35 @@ public class PlayerChangesGamemodeScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("player changes gamemode");
+        if (!data.eventPath.startsWith("player changes gamemode")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
+        if (!candidates.contains(data)) {
+            return false;
+        }
         Player playerInternal = player.getOnline(this::error);
         World world = playerInternal.getWorld();
         return D2SpongeEventHelper.checkGamemode(old_gamemode.getInternal(), data, this::error, "old_gamemode")
                 && D2SpongeEventHelper.checkGamemode(new_gamemode.getInternal(), data, this::error, "new_gamemode")
                 && D2SpongeEventHelper.checkWorld(world, data, this::error) && D2SpongeEventHelper.checkCuboid(
                 new LocationTag(playerInternal.getLocation()).getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
     }
 
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("old_gamemode", GameMode.class),
+            new DispatchIndex.Key("new_gamemode", GameMode.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public Set<ScriptEventData> candidates;
+
     public PlayerTag player;
 
     public TextTag old_gamemode;
@@ -99,13 +116,19 @@ public class PlayerChangesGamemodeScriptEvent extends ScriptEvent {
 
     @Listener
     public void onPlayerChangesGamemode(ChangeGameModeEvent.TargetPlayer evt, @Root Player player) {
+        Set<ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                .getCandidates(evt.getOriginalGameMode(), evt.getGameMode(), player.getWorld().getUniqueId());
+        if (candidates.isEmpty()) {
+            return;
+        }
         PlayerChangesGamemodeScriptEvent event = (PlayerChangesGamemodeScriptEvent) clone();
+        event.candidates = candidates;
         event.internal = evt;
         event.player = new PlayerTag(player);
         event.old_gamemode = new TextTag(Utilities.getIdWithoutDefaultPrefix(evt.getOriginalGameMode().getId()));
         event.new_gamemode = new TextTag(Utilities.getIdWithoutDefaultPrefix(evt.getGameMode().getId()));
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
@@ -6,6 +6,7 @@ import com.denizenscript.denizen2core.tags.objects.BooleanTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.tags.objects.FormattedTextTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
@@ -83,7 +84,7 @@ public class PlayerDisconnectsScriptEvent extends ScriptEvent {
         event.internal = evt;
         event.player = new PlayerTag(player);
         event.message = new FormattedTextTag(evt.getMessage());
-        event.run();
+        Timings.runEvent(event);
     }
 
     @Override
@@ -4,9 +4,9 @@ import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
-import com.denizenscript.denizen2sponge.tags.objects.ItemTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import com.flowpowered.math.vector.Vector3d;
 import org.spongepowered.api.Sponge;
@@ -15,7 +15,6 @@ import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.block.InteractBlockEvent;
 import org.spongepowered.api.event.filter.cause.Root;
-import org.spongepowered.api.item.inventory.ItemStack;
 import org.spongepowered.api.util.blockray.BlockRay;
 import org.spongepowered.api.util.blockray.BlockRayHit;
 import org.spongepowered.api.world.Location;
@@ -67,13 +66,42 @@ public class PlayerLeftClicksBlockScriptEvent extends ScriptEvent {
 
     @Override
     public boolean matches(ScriptEventData data) {
+        if (location == null) {
+            loadLocations();
+        }
         return D2SpongeEventHelper.checkBlockType(location.getInternal().toLocation().getBlock().getType(), data, this::error)
-                && D2SpongeEventHelper.checkItem(new ItemTag(player.getInternal()
-                .getItemInHand(HandTypes.MAIN_HAND).orElse(ItemStack.empty())), data, this::error)
+                && D2SpongeEventHelper.checkItem(playerInternal, HandTypes.MAIN_HAND, data, this::error)
                 && D2SpongeEventHelper.checkWorld(location.getInternal().world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid(location.getInternal(), data, this::error);
     }
 
+    public void loadLocations() {
+        World world = playerInternal.getWorld();
+        Optional<Location<World>> opt = internal.getTargetBlock().getLocation();
+        if (opt.isPresent()) {
+            location = new LocationTag(opt.get());
+            if (internal.getInteractionPoint().isPresent()) {
+                Vector3d point = internal.getInteractionPoint().get();
+                precise_location = new LocationTag(point, world);
+                intersection_point = new LocationTag(point.sub(opt.get().getPosition()));
+                impact_normal = new LocationTag(internal.getTargetSide().asOffset());
+            }
+            else {
+                BlockRayHit<World> brh = BlockRay.from(playerInternal).distanceLimit(Utilities.getHandReach(playerInternal)).build().end().get();
+                precise_location = new LocationTag(brh.getPosition(), world);
+                intersection_point = new LocationTag(brh.getPosition().sub(brh.getBlockPosition().toDouble()));
+                impact_normal = new LocationTag(brh.getNormal());
+            }
+        }
+        else {
+            BlockRayHit<World> brh = BlockRay.from(playerInternal).distanceLimit(Utilities.getHandReach(playerInternal)).build().end().get();
+            location = new LocationTag(brh.getLocation());
+            precise_location = new LocationTag(brh.getPosition(), world);
+            intersection_point = new LocationTag(brh.getPosition().sub(brh.getBlockPosition().toDouble()));
+            impact_normal = new LocationTag(brh.getNormal());
+        }
+    }
+
     public PlayerTag player;
 
     public LocationTag location;
@@ -84,11 +112,19 @@ public class PlayerLeftClicksBlockScriptEvent extends ScriptEvent {
 
     public LocationTag impact_normal;
 
+    public Player playerInternal;
+
     public InteractBlockEvent.Primary internal;
 
     @Override
     public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
         HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        if (location == null) {
+            loadLocations();
+        }
+        if (player == null) {
+            player = new PlayerTag(playerInternal);
+        }
         defs.put("player", player);
         defs.put("location", location);
         defs.put("precise_location", precise_location);
@@ -111,33 +147,9 @@ public class PlayerLeftClicksBlockScriptEvent extends ScriptEvent {
     public void onLeftClickBlock(InteractBlockEvent.Primary evt, @Root Player player) {
         PlayerLeftClicksBlockScriptEvent event = (PlayerLeftClicksBlockScriptEvent) clone();
         event.internal = evt;
-        event.player = new PlayerTag(player);
-        World world = player.getWorld();
-        Optional<Location<World>> opt = evt.getTargetBlock().getLocation();
-        if (opt.isPresent()) {
-            event.location = new LocationTag(opt.get());
-            if (evt.getInteractionPoint().isPresent()) {
-                Vector3d point = evt.getInteractionPoint().get();
-                event.precise_location = new LocationTag(point, world);
-                event.intersection_point = new LocationTag(point.sub(opt.get().getPosition()));
-                event.impact_normal = new LocationTag(evt.getTargetSide().asOffset());
-            }
-            else {
-                BlockRayHit<World> brh = BlockRay.from(player).distanceLimit(Utilities.getHandReach(player)).build().end().get();
-                event.precise_location = new LocationTag(brh.getPosition(), world);
-                event.intersection_point = new LocationTag(brh.getPosition().sub(brh.getBlockPosition().toDouble()));
-                event.impact_normal = new LocationTag(brh.getNormal());
-            }
-        }
-        else {
-            BlockRayHit<World> brh = BlockRay.from(player).distanceLimit(Utilities.getHandReach(player)).build().end().get();
-            event.location = new LocationTag(brh.getLocation());
-            event.precise_location = new LocationTag(brh.getPosition(), world);
-            event.intersection_point = new LocationTag(brh.getPosition().sub(brh.getBlockPosition().toDouble()));
-            event.impact_normal = new LocationTag(brh.getNormal());
-        }
+        event.playerInternal = player;
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
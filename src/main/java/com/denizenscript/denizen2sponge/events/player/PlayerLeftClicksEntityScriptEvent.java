@@ -4,18 +4,20 @@ import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
-import com.denizenscript.denizen2sponge.tags.objects.ItemTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.data.type.HandTypes;
+import org.spongepowered.api.entity.EntityType;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.entity.InteractEntityEvent;
 import org.spongepowered.api.event.filter.cause.Root;
-import org.spongepowered.api.item.inventory.ItemStack;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public class PlayerLeftClicksEntityScriptEvent extends ScriptEvent {
 
@@ -50,25 +52,43 @@ public class PlayerLeftClicksEntityScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("player left clicks entity");
+        if (!data.eventPath.startsWith("player left clicks entity")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
-        return D2SpongeEventHelper.checkEntityType(entity.getInternal().getType(), data, this::error)
-                && D2SpongeEventHelper.checkItem(new ItemTag(player.getInternal()
-                .getItemInHand(HandTypes.MAIN_HAND).orElse(ItemStack.empty())), data, this::error);
+        if (!candidates.contains(data)) {
+            return false;
+        }
+        return D2SpongeEventHelper.checkEntityType(internal.getTargetEntity().getType(), data, this::error)
+                && D2SpongeEventHelper.checkItem(playerInternal, HandTypes.MAIN_HAND, data, this::error);
     }
 
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("type", EntityType.class)
+    };
+
+    public Set<ScriptEventData> candidates;
+
     public PlayerTag player;
 
     public EntityTag entity;
 
+    public Player playerInternal;
+
     public InteractEntityEvent.Primary internal;
 
     @Override
     public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
         HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        if (player == null) {
+            player = new PlayerTag(playerInternal);
+            entity = new EntityTag(internal.getTargetEntity());
+        }
         defs.put("player", player);
         defs.put("entity", entity);
         return defs;
@@ -86,12 +106,17 @@ public class PlayerLeftClicksEntityScriptEvent extends ScriptEvent {
 
     @Listener
     public void onLeftClickEntity(InteractEntityEvent.Primary evt, @Root Player player) {
+        Set<ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                .getCandidates(evt.getTargetEntity().getType());
+        if (candidates.isEmpty()) {
+            return;
+        }
         PlayerLeftClicksEntityScriptEvent event = (PlayerLeftClicksEntityScriptEvent) clone();
+        event.candidates = candidates;
         event.internal = evt;
-        event.player = new PlayerTag(player);
-        event.entity = new EntityTag(evt.getTargetEntity());
+        event.playerInternal = player;
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
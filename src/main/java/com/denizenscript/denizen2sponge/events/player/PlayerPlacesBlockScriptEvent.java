@@ -4,19 +4,24 @@ import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.BlockTypeTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockSnapshot;
+import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.data.Transaction;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.block.ChangeBlockEvent;
 import org.spongepowered.api.event.filter.cause.Root;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public class PlayerPlacesBlockScriptEvent extends ScriptEvent {
 
@@ -55,18 +60,31 @@ public class PlayerPlacesBlockScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEvent.ScriptEventData data) {
-        return data.eventPath.startsWith("player places block");
+        if (!data.eventPath.startsWith("player places block")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEvent.ScriptEventData data) {
+        if (!candidates.contains(data)) {
+            return false;
+        }
         return D2SpongeEventHelper.checkBlockType(material.getInternal(), data, this::error)
                 && D2SpongeEventHelper.checkWorld(location.getInternal().world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid(location.getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                location.getInternal().world.getWeather().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(location.getInternal().world.getWeather(), data, this::error);
     }
 
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("type", BlockType.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public Set<ScriptEvent.ScriptEventData> candidates;
+
     public PlayerTag player;
 
     public BlockTypeTag material;
@@ -102,15 +120,22 @@ public class PlayerPlacesBlockScriptEvent extends ScriptEvent {
     @Listener
     public void onBlockPlaced(ChangeBlockEvent.Place evt, @Root Player player) {
         for (Transaction<BlockSnapshot> block : evt.getTransactions()) {
+            Location<World> location = block.getOriginal().getLocation().get();
+            Set<ScriptEvent.ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                    .getCandidates(block.getFinal().getState().getType(), location.getExtent().getUniqueId());
+            if (candidates.isEmpty()) {
+                continue;
+            }
             PlayerPlacesBlockScriptEvent event = (PlayerPlacesBlockScriptEvent) clone();
+            event.candidates = candidates;
             event.internal = evt;
             event.block = block;
             event.player = new PlayerTag(player);
-            event.material = new BlockTypeTag(block.getFinal().getState().getType());
-            event.old_material = new BlockTypeTag(block.getOriginal().getState().getType());
-            event.location = new LocationTag(block.getOriginal().getLocation().get());
+            event.material = BlockTypeTag.getForType(block.getFinal().getState().getType());
+            event.old_material = BlockTypeTag.getForType(block.getOriginal().getState().getType());
+            event.location = new LocationTag(location);
             event.cancelled = evt.isCancelled();
-            event.run();
+            Timings.runEvent(event);
             evt.setCancelled(event.cancelled);
         }
     }
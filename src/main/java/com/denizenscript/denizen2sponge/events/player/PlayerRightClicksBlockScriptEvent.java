@@ -5,9 +5,10 @@ import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.TextTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
-import com.denizenscript.denizen2sponge.tags.objects.ItemTag;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import com.flowpowered.math.vector.Vector3d;
 import org.spongepowered.api.Sponge;
@@ -16,7 +17,6 @@ import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.block.InteractBlockEvent;
 import org.spongepowered.api.event.filter.cause.Root;
-import org.spongepowered.api.item.inventory.ItemStack;
 import org.spongepowered.api.util.blockray.BlockRay;
 import org.spongepowered.api.util.blockray.BlockRayHit;
 import org.spongepowered.api.world.Location;
@@ -24,6 +24,7 @@ import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.Set;
 
 public class PlayerRightClicksBlockScriptEvent extends ScriptEvent {
 
@@ -65,19 +66,55 @@ public class PlayerRightClicksBlockScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("player right clicks block");
+        if (!data.eventPath.startsWith("player right clicks block")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
+        if (!candidates.contains(data)) {
+            return false;
+        }
+        if (location == null) {
+            loadLocations();
+        }
         return D2SpongeEventHelper.checkBlockType(location.getInternal().toLocation().getBlock().getType(), data, this::error)
-                && D2SpongeEventHelper.checkHandType(hand.getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkItem(new ItemTag(player.getInternal()
-                .getItemInHand(hInternal).orElse(ItemStack.empty())), data, this::error)
+                && D2SpongeEventHelper.checkHandType(hInternal, data, this::error)
+                && D2SpongeEventHelper.checkItem(playerInternal, hInternal, data, this::error)
                 && D2SpongeEventHelper.checkWorld(location.getInternal().world, data, this::error)
                 && D2SpongeEventHelper.checkCuboid(location.getInternal(), data, this::error);
     }
 
+    public void loadLocations() {
+        World world = playerInternal.getWorld();
+        Optional<Location<World>> opt = internal.getTargetBlock().getLocation();
+        if (opt.isPresent()) {
+            location = new LocationTag(opt.get());
+            Vector3d point = internal.getInteractionPoint().get();
+            precise_location = new LocationTag(point, world);
+            intersection_point = new LocationTag(point.sub(opt.get().getPosition()));
+            impact_normal = new LocationTag(internal.getTargetSide().asOffset());
+        }
+        else {
+            BlockRayHit<World> brh = BlockRay.from(playerInternal)
+                    .distanceLimit(Utilities.getHandReach(playerInternal)).build().end().get();
+            location = new LocationTag(brh.getLocation());
+            precise_location = new LocationTag(brh.getPosition(), world);
+            intersection_point = new LocationTag(brh.getPosition().sub(brh.getBlockPosition().toDouble()));
+            impact_normal = new LocationTag(brh.getNormal());
+        }
+    }
+
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("hand", HandType.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public Set<ScriptEventData> candidates;
+
     public PlayerTag player;
 
     public LocationTag location;
@@ -92,11 +129,20 @@ public class PlayerRightClicksBlockScriptEvent extends ScriptEvent {
 
     public HandType hInternal;
 
+    public Player playerInternal;
+
     public InteractBlockEvent.Secondary internal;
 
     @Override
     public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
         HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        if (location == null) {
+            loadLocations();
+        }
+        if (player == null) {
+            player = new PlayerTag(playerInternal);
+            hand = new TextTag(Utilities.getIdWithoutDefaultPrefix(hInternal.getId()));
+        }
         defs.put("player", player);
         defs.put("location", location);
         defs.put("precise_location", precise_location);
@@ -118,30 +164,18 @@ public class PlayerRightClicksBlockScriptEvent extends ScriptEvent {
 
     @Listener
     public void onRightClickBlock(InteractBlockEvent.Secondary evt, @Root Player player) {
+        Set<ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                .getCandidates(evt.getHandType(), player.getWorld().getUniqueId());
+        if (candidates.isEmpty()) {
+            return;
+        }
         PlayerRightClicksBlockScriptEvent event = (PlayerRightClicksBlockScriptEvent) clone();
+        event.candidates = candidates;
         event.internal = evt;
-        event.player = new PlayerTag(player);
-        World world = player.getWorld();
-        Optional<Location<World>> opt = evt.getTargetBlock().getLocation();
-        if (opt.isPresent()) {
-            event.location = new LocationTag(opt.get());
-            Vector3d point = evt.getInteractionPoint().get();
-            event.precise_location = new LocationTag(point, world);
-            event.intersection_point = new LocationTag(point.sub(opt.get().getPosition()));
-            event.impact_normal = new LocationTag(evt.getTargetSide().asOffset());
-        }
-        else {
-            BlockRayHit<World> brh = BlockRay.from(player)
-                    .distanceLimit(Utilities.getHandReach(player)).build().end().get();
-            event.location = new LocationTag(brh.getLocation());
-            event.precise_location = new LocationTag(brh.getPosition(), world);
-            event.intersection_point = new LocationTag(brh.getPosition().sub(brh.getBlockPosition().toDouble()));
-            event.impact_normal = new LocationTag(brh.getNormal());
-        }
+        event.playerInternal = player;
         event.hInternal = evt.getHandType();
-        event.hand = new TextTag(Utilities.getIdWithoutDefaultPrefix(evt.getHandType().getId()));
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
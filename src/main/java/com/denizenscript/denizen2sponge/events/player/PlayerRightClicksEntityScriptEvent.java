@@ -5,19 +5,21 @@ import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.TextTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
-import com.denizenscript.denizen2sponge.tags.objects.ItemTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.data.type.HandType;
+import org.spongepowered.api.entity.EntityType;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.entity.InteractEntityEvent;
 import org.spongepowered.api.event.filter.cause.Root;
-import org.spongepowered.api.item.inventory.ItemStack;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public class PlayerRightClicksEntityScriptEvent extends ScriptEvent {
 
@@ -54,17 +56,30 @@ public class PlayerRightClicksEntityScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("player right clicks entity");
+        if (!data.eventPath.startsWith("player right clicks entity")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
-        return D2SpongeEventHelper.checkEntityType(entity.getInternal().getType(), data, this::error)
-                && D2SpongeEventHelper.checkHandType(hand.getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkItem(new ItemTag(player.getInternal()
-                .getItemInHand(hInternal).orElse(ItemStack.empty())), data, this::error);
+        if (!candidates.contains(data)) {
+            return false;
+        }
+        return D2SpongeEventHelper.checkEntityType(internal.getTargetEntity().getType(), data, this::error)
+                && D2SpongeEventHelper.checkHandType(hInternal, data, this::error)
+                && D2SpongeEventHelper.checkItem(playerInternal, hInternal, data, this::error);
     }
 
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("type", EntityType.class),
+            new DispatchIndex.Key("hand", HandType.class)
+    };
+
+    public Set<ScriptEventData> candidates;
+
     public PlayerTag player;
 
     public EntityTag entity;
@@ -73,11 +88,18 @@ public class PlayerRightClicksEntityScriptEvent extends ScriptEvent {
 
     public HandType hInternal;
 
+    public Player playerInternal;
+
     public InteractEntityEvent.Secondary internal;
 
     @Override
     public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
         HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        if (player == null) {
+            player = new PlayerTag(playerInternal);
+            entity = new EntityTag(internal.getTargetEntity());
+            hand = new TextTag(Utilities.getIdWithoutDefaultPrefix(hInternal.getId()));
+        }
         defs.put("player", player);
         defs.put("entity", entity);
         defs.put("hand", hand);
@@ -96,14 +118,18 @@ public class PlayerRightClicksEntityScriptEvent extends ScriptEvent {
 
     @Listener
     public void onRightClickEntity(InteractEntityEvent.Secondary evt, @Root Player player) {
+        Set<ScriptEventData> candidates = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error)
+                .getCandidates(evt.getTargetEntity().getType(), evt.getHandType());
+        if (candidates.isEmpty()) {
+            return;
+        }
         PlayerRightClicksEntityScriptEvent event = (PlayerRightClicksEntityScriptEvent) clone();
+        event.candidates = candidates;
         event.internal = evt;
-        event.player = new PlayerTag(player);
-        event.entity = new EntityTag(evt.getTargetEntity());
+        event.playerInternal = player;
         event.hInternal = evt.getHandType();
-        event.hand = new TextTag(Utilities.getIdWithoutDefaultPrefix(evt.getHandType().getId()));
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
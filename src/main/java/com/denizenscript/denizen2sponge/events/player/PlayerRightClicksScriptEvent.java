@@ -4,15 +4,14 @@ import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
-import com.denizenscript.denizen2sponge.tags.objects.ItemTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.data.type.HandTypes;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.filter.cause.Root;
 import org.spongepowered.api.event.item.inventory.InteractItemEvent;
-import org.spongepowered.api.item.inventory.ItemStack;
 
 import java.util.HashMap;
 
@@ -52,17 +51,21 @@ public class PlayerRightClicksScriptEvent extends ScriptEvent {
 
     @Override
     public boolean matches(ScriptEventData data) {
-        return D2SpongeEventHelper.checkItem(new ItemTag(player.getInternal().
-                getItemInHand(HandTypes.MAIN_HAND).orElse(ItemStack.empty())), data, this::error);
+        return D2SpongeEventHelper.checkItem(playerInternal, HandTypes.MAIN_HAND, data, this::error);
     }
 
     public PlayerTag player;
 
+    public Player playerInternal;
+
     public InteractItemEvent.Secondary internal;
 
     @Override
     public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
         HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        if (player == null) {
+            player = new PlayerTag(playerInternal);
+        }
         defs.put("player", player);
         return defs;
     }
@@ -81,9 +84,9 @@ public class PlayerRightClicksScriptEvent extends ScriptEvent {
     public void onRightClick(InteractItemEvent.Secondary evt, @Root Player player) {
         PlayerRightClicksScriptEvent event = (PlayerRightClicksScriptEvent) clone();
         event.internal = evt;
-        event.player = new PlayerTag(player);
+        event.playerInternal = player;
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
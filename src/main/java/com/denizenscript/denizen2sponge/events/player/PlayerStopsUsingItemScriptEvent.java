@@ -8,7 +8,7 @@ import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.ItemTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
@@ -65,9 +65,8 @@ public class PlayerStopsUsingItemScriptEvent extends ScriptEvent {
         return D2SpongeEventHelper.checkItem(item, data, this::error, "item")
                 && D2SpongeEventHelper.checkWorld(world, data, this::error) && D2SpongeEventHelper.checkCuboid(
                 new LocationTag(playerInternal.getLocation()).getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                world.getWeather().getId()), data, this::error) && D2SpongeEventHelper.checkGamemode(
-                Utilities.getIdWithoutDefaultPrefix(playerInternal.gameMode().get().getId()), data, this::error);
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error)
+                && D2SpongeEventHelper.checkGamemode(playerInternal.gameMode().get(), data, this::error);
     }
 
     public PlayerTag player;
@@ -105,7 +104,7 @@ public class PlayerStopsUsingItemScriptEvent extends ScriptEvent {
         event.item = new ItemTag(evt.getItemStackInUse().createStack());
         event.duration = new DurationTag(evt.getRemainingDuration() / 20.0);
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
@@ -7,6 +7,7 @@ import com.denizenscript.denizen2core.tags.objects.IntegerTag;
 import com.denizenscript.denizen2core.tags.objects.TextTag;
 import com.denizenscript.denizen2core.utilities.debugging.Debug;
 import com.denizenscript.denizen2sponge.tags.objects.FormattedTextTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.server.ClientPingServerEvent;
@@ -113,7 +114,7 @@ public class ClientPingsServerScriptEvent extends ScriptEvent {
         event.num_players = new IntegerTag(numPlayers);
         event.max_players = new IntegerTag(maxPlayers);
         // TODO: Read and control the player name list! (Profiles)
-        event.run();
+        Timings.runEvent(event);
     }
 
     @Override
@@ -9,6 +9,7 @@ import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
 import com.denizenscript.denizen2sponge.tags.objects.PlayerTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.tileentity.CommandBlock;
 import org.spongepowered.api.command.CommandSource;
@@ -60,12 +61,25 @@ public class CommandSentScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("command sent");
+        if (!data.eventPath.startsWith("command sent")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
-        return D2SpongeEventHelper.checkString(command.getInternal(), data, this::error, "command");
+        return D2SpongeEventHelper.checkString(internal.getCommand(), data, this::error, "command");
+    }
+
+    public boolean couldMatchAny(String command) {
+        for (ScriptEventData data : D2SpongeEventHelper.getRegisteredPaths(getName())) {
+            if (D2SpongeEventHelper.checkString(command, data, this::error, "command")) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public TextTag command;
@@ -87,6 +101,34 @@ public class CommandSentScriptEvent extends ScriptEvent {
     @Override
     public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
         HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        if (command == null) {
+            command = new TextTag(internal.getCommand());
+        }
+        if (args == null) {
+            args = new ListTag();
+            for (String arg : splitArguments(internal.getArguments())) {
+                args.getInternal().add(new TextTag(arg));
+            }
+            raw_args = new TextTag(internal.getArguments());
+        }
+        if (source == null) {
+            CommandSource src = (CommandSource) internal.getSource();
+            if (src instanceof Player) {
+                source = new TextTag("player");
+                player = new PlayerTag((Player) src);
+            }
+            else if (src instanceof CommandBlock) {
+                source = new TextTag("block");
+                location = new LocationTag(((CommandBlock) src).getLocation());
+            }
+            else if (src instanceof CommandBlockMinecart) {
+                source = new TextTag("minecart");
+                entity = new EntityTag((CommandBlockMinecart) src);
+            }
+            else {
+                source = new TextTag("server");
+            }
+        }
         defs.put("command", command);
         defs.put("args", args);
         defs.put("raw_args", raw_args);
@@ -143,33 +185,13 @@ public class CommandSentScriptEvent extends ScriptEvent {
 
     @Listener
     public void onCommandSent(SendCommandEvent evt) {
+        if (!couldMatchAny(evt.getCommand())) {
+            return;
+        }
         CommandSentScriptEvent event = (CommandSentScriptEvent) clone();
         event.internal = evt;
-        event.command = new TextTag(evt.getCommand());
-        ListTag list = new ListTag();
-        for (String arg : splitArguments(evt.getArguments())) {
-            list.getInternal().add(new TextTag(arg));
-        }
-        event.args = list;
-        event.raw_args = new TextTag(evt.getArguments());
-        CommandSource source = (CommandSource) evt.getSource();
-        if (source instanceof Player) {
-            event.source = new TextTag("player");
-            event.player = new PlayerTag((Player) source);
-        }
-        else if (source instanceof CommandBlock) {
-            event.source = new TextTag("block");
-            event.location = new LocationTag(((CommandBlock) source).getLocation());
-        }
-        else if (source instanceof CommandBlockMinecart) {
-            event.source = new TextTag("minecart");
-            event.entity = new EntityTag((CommandBlockMinecart) source);
-        }
-        else {
-            event.source = new TextTag("server");
-        }
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
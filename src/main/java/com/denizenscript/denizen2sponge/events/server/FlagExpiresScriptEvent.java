@@ -0,0 +1,102 @@
+package com.denizenscript.denizen2sponge.events.server;
+
+import com.denizenscript.denizen2core.events.ScriptEvent;
+import com.denizenscript.denizen2core.tags.AbstractTagObject;
+import com.denizenscript.denizen2core.tags.objects.BooleanTag;
+import com.denizenscript.denizen2core.tags.objects.NullTag;
+import com.denizenscript.denizen2core.tags.objects.TextTag;
+import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.tags.objects.EntityTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
+import org.spongepowered.api.entity.Entity;
+
+import java.util.HashMap;
+
+public class FlagExpiresScriptEvent extends ScriptEvent {
+
+    // <--[event]
+    // @Since 0.5.5
+    // @Events
+    // flag expires
+    //
+    // @Updated 2026/10/18
+    //
+    // @Cancellable false
+    //
+    // @Group Server
+    //
+    // @Triggers when a flag set with a duration expires and is removed from a loaded entity or the server.
+    //
+    // @Switch flag (TextTag) checks the flag name.
+    //
+    // @Context
+    // flag (TextTag) returns the name of the flag that expired.
+    // value (Dynamic) returns the value the flag held.
+    // server (BooleanTag) returns whether the flag was a server flag.
+    // entity (EntityTag) returns the entity the flag was on, if it was not a server flag.
+    //
+    // @Determinations
+    // None.
+    // -->
+
+    private static FlagExpiresScriptEvent instance;
+
+    public static void fire(Entity entity, String flag, AbstractTagObject value) {
+        if (instance == null) {
+            return;
+        }
+        FlagExpiresScriptEvent event = (FlagExpiresScriptEvent) instance.clone();
+        event.entity = entity == null ? null : new EntityTag(entity);
+        event.flag = new TextTag(flag);
+        event.value = value == null ? NullTag.NULL : value;
+        Timings.runEvent(event);
+    }
+
+    @Override
+    public String getName() {
+        return "FlagExpires";
+    }
+
+    @Override
+    public boolean couldMatch(ScriptEventData data) {
+        return data.eventPath.startsWith("flag expires");
+    }
+
+    @Override
+    public boolean matches(ScriptEventData data) {
+        return D2SpongeEventHelper.checkString(flag.getInternal(), data, this::error, "flag");
+    }
+
+    public EntityTag entity;
+
+    public TextTag flag;
+
+    public AbstractTagObject value;
+
+    @Override
+    public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
+        HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        defs.put("flag", flag);
+        defs.put("value", value);
+        defs.put("server", BooleanTag.getForBoolean(entity == null));
+        if (entity != null) {
+            defs.put("entity", entity);
+        }
+        return defs;
+    }
+
+    @Override
+    public void enable() {
+        instance = this;
+    }
+
+    @Override
+    public void disable() {
+        instance = null;
+    }
+
+    @Override
+    public void applyDetermination(boolean errors, String determination, AbstractTagObject value) {
+        super.applyDetermination(errors, determination, value);
+    }
+}
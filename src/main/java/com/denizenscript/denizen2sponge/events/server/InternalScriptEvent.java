@@ -6,6 +6,7 @@ import com.denizenscript.denizen2core.tags.objects.MapTag;
 import com.denizenscript.denizen2core.tags.objects.TextTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Cancellable;
 import org.spongepowered.api.event.Event;
@@ -100,7 +101,7 @@ public class InternalScriptEvent extends ScriptEvent {
             event.cause.getInternal().put(tc.getKey(), new TextTag(tc.getValue().toString()));
         }
         */
-        event.run();
+        Timings.runEvent(event);
         if (evt instanceof Cancellable) {
             ((Cancellable) evt).setCancelled(event.cancelled);
         }
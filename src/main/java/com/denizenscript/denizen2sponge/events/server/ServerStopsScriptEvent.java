@@ -3,6 +3,7 @@ package com.denizenscript.denizen2sponge.events.server;
 import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.Order;
@@ -68,7 +69,7 @@ public class ServerStopsScriptEvent extends ScriptEvent {
     public void onServerStop(GameStoppingServerEvent evt) {
         ServerStopsScriptEvent event = (ServerStopsScriptEvent) clone();
         event.internal = evt;
-        event.run();
+        Timings.runEvent(event);
     }
 
     @Override
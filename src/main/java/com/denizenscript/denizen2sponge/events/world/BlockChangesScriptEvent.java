@@ -4,16 +4,22 @@ import com.denizenscript.denizen2core.events.ScriptEvent;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
 import com.denizenscript.denizen2sponge.tags.objects.BlockTypeTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
-import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockSnapshot;
+import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.data.Transaction;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.block.ChangeBlockEvent;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
+import java.util.Optional;
+import java.util.Set;
 
 public class BlockChangesScriptEvent extends ScriptEvent {
 
@@ -52,18 +58,46 @@ public class BlockChangesScriptEvent extends ScriptEvent {
 
     @Override
     public boolean couldMatch(ScriptEventData data) {
-        return data.eventPath.startsWith("block changes");
+        if (!data.eventPath.startsWith("block changes")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
     }
 
     @Override
     public boolean matches(ScriptEventData data) {
-        return D2SpongeEventHelper.checkBlockType(new_material.getInternal(), data, this::error, "new_type")
-                && D2SpongeEventHelper.checkBlockType(old_material.getInternal(), data, this::error, "old_type")
-                && D2SpongeEventHelper.checkWorld(location.getInternal().world, data, this::error)
-                && D2SpongeEventHelper.checkCuboid(location.getInternal(), data, this::error)
-                && D2SpongeEventHelper.checkWeather(Utilities.getIdWithoutDefaultPrefix(
-                location.getInternal().world.getWeather().getId()), data, this::error);
+        return candidates.contains(data) && matches(data, block, world)
+                && D2SpongeEventHelper.checkCuboid(block.getFinal().getLocation().get(), data, this::error);
+    }
+
+    private boolean matches(ScriptEventData data, Transaction<BlockSnapshot> block, World world) {
+        return D2SpongeEventHelper.checkBlockType(block.getFinal().getState().getType(), data, this::error, "new_type")
+                && D2SpongeEventHelper.checkBlockType(block.getOriginal().getState().getType(), data, this::error, "old_type")
+                && D2SpongeEventHelper.checkWorld(world, data, this::error)
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
+    }
+
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("new_type", BlockType.class),
+            new DispatchIndex.Key("old_type", BlockType.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public Set<ScriptEventData> candidates;
 
+    public Set<ScriptEventData> getCandidates(Transaction<BlockSnapshot> block, World world) {
+        return D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error).getCandidates(
+                block.getFinal().getState().getType(), block.getOriginal().getState().getType(), world.getUniqueId());
+    }
+
+    public boolean couldMatchAny(Set<ScriptEventData> candidates, Transaction<BlockSnapshot> block, World world) {
+        for (ScriptEventData data : candidates) {
+            if (matches(data, block, world)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public LocationTag location;
@@ -72,11 +106,20 @@ public class BlockChangesScriptEvent extends ScriptEvent {
 
     public BlockTypeTag old_material;
 
+    public Transaction<BlockSnapshot> block;
+
+    public World world;
+
     public ChangeBlockEvent internal;
 
     @Override
     public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
         HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        if (location == null) {
+            location = new LocationTag(block.getFinal().getLocation().get());
+            new_material = BlockTypeTag.getForType(block.getFinal().getState().getType());
+            old_material = BlockTypeTag.getForType(block.getOriginal().getState().getType());
+        }
         defs.put("location", location);
         defs.put("new_material", new_material);
         defs.put("old_material", old_material);
@@ -96,13 +139,21 @@ public class BlockChangesScriptEvent extends ScriptEvent {
     @Listener
     public void onBlockChanged(ChangeBlockEvent evt) {
         for (Transaction<BlockSnapshot> block : evt.getTransactions()) {
+            Optional<Location<World>> loc = block.getFinal().getLocation();
+            if (!loc.isPresent()) {
+                continue;
+            }
+            Set<ScriptEventData> candidates = getCandidates(block, loc.get().getExtent());
+            if (!couldMatchAny(candidates, block, loc.get().getExtent())) {
+                continue;
+            }
             BlockChangesScriptEvent event = (BlockChangesScriptEvent) clone();
+            event.candidates = candidates;
             event.internal = evt;
-            event.location = new LocationTag(block.getFinal().getLocation().get());
-            event.new_material = new BlockTypeTag(block.getFinal().getState().getType());
-            event.old_material = new BlockTypeTag(block.getOriginal().getState().getType());
+            event.block = block;
+            event.world = loc.get().getExtent();
             event.cancelled = evt.isCancelled();
-            event.run();
+            Timings.runEvent(event);
             evt.setCancelled(event.cancelled);
         }
     }
@@ -0,0 +1,179 @@
+package com.denizenscript.denizen2sponge.events.world;
+
+import com.denizenscript.denizen2core.events.ScriptEvent;
+import com.denizenscript.denizen2core.tags.AbstractTagObject;
+import com.denizenscript.denizen2core.tags.objects.IntegerTag;
+import com.denizenscript.denizen2core.tags.objects.ListTag;
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
+import com.denizenscript.denizen2sponge.events.DispatchIndex;
+import com.denizenscript.denizen2sponge.tags.objects.BlockTypeTag;
+import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.block.BlockSnapshot;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.data.Transaction;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.block.ChangeBlockEvent;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.*;
+
+public class BlocksChangeScriptEvent extends ScriptEvent {
+
+    // <--[event]
+    // @Since 0.5.5
+    // @Events
+    // blocks change
+    //
+    // @Updated 2026/10/18
+    //
+    // @Group World
+    //
+    // @Cancellable true
+    //
+    // @Triggers when one or more blocks change for any given reason, once for the whole batch.
+    // Switches are checked against each changed block, and the contexts only list the blocks that passed them.
+    // Prefer this over "block changes" for explosions, pistons and other large changes.
+    //
+    // @Switch new_type (BlockTypeTag) checks the new block type.
+    // @Switch old_type (BlockTypeTag) checks the old block type.
+    // @Switch world (WorldTag) checks the world.
+    // @Switch cuboid (CuboidTag) checks the cuboid area.
+    // @Switch weather (TextTag) checks the weather.
+    //
+    // @Context
+    // locations (ListTag<LocationTag>) returns the locations of the changed blocks.
+    // new_materials (ListTag<BlockTypeTag>) returns the new types of the blocks.
+    // old_materials (ListTag<BlockTypeTag>) returns the old types of the blocks.
+    // indices (ListTag<IntegerTag>) returns the index of each block within the full change, for use with cancel_blocks.
+    //
+    // @Determinations
+    // cancel_blocks (ListTag<IntegerTag>) to cancel the changes of the blocks at the given indices.
+    // -->
+
+    @Override
+    public String getName() {
+        return "BlocksChange";
+    }
+
+    @Override
+    public boolean couldMatch(ScriptEventData data) {
+        if (!data.eventPath.startsWith("blocks change")) {
+            return false;
+        }
+        D2SpongeEventHelper.registerPath(getName(), data);
+        return true;
+    }
+
+    @Override
+    public boolean matches(ScriptEventData data) {
+        return matched.containsKey(data);
+    }
+
+    private boolean matches(ScriptEventData data, Transaction<BlockSnapshot> block, Location<World> location) {
+        World world = location.getExtent();
+        return D2SpongeEventHelper.checkBlockType(block.getFinal().getState().getType(), data, this::error, "new_type")
+                && D2SpongeEventHelper.checkBlockType(block.getOriginal().getState().getType(), data, this::error, "old_type")
+                && D2SpongeEventHelper.checkWorld(world, data, this::error)
+                && D2SpongeEventHelper.checkCuboid(location, data, this::error)
+                && D2SpongeEventHelper.checkWeather(world.getWeather(), data, this::error);
+    }
+
+    private static final DispatchIndex.Key[] INDEX_KEYS = new DispatchIndex.Key[] {
+            new DispatchIndex.Key("new_type", BlockType.class),
+            new DispatchIndex.Key("old_type", BlockType.class),
+            new DispatchIndex.Key("world", World.class)
+    };
+
+    public IdentityHashMap<ScriptEventData, int[]> matched;
+
+    public List<Transaction<BlockSnapshot>> transactions;
+
+    public ChangeBlockEvent internal;
+
+    @Override
+    public HashMap<String, AbstractTagObject> getDefinitions(ScriptEventData data) {
+        HashMap<String, AbstractTagObject> defs = super.getDefinitions(data);
+        ListTag locations = new ListTag();
+        ListTag newMaterials = new ListTag();
+        ListTag oldMaterials = new ListTag();
+        ListTag indices = new ListTag();
+        for (int index : matched.get(data)) {
+            Transaction<BlockSnapshot> block = transactions.get(index);
+            locations.getInternal().add(new LocationTag(block.getFinal().getLocation().get()));
+            newMaterials.getInternal().add(BlockTypeTag.getForType(block.getFinal().getState().getType()));
+            oldMaterials.getInternal().add(BlockTypeTag.getForType(block.getOriginal().getState().getType()));
+            indices.getInternal().add(new IntegerTag(index + 1));
+        }
+        defs.put("locations", locations);
+        defs.put("new_materials", newMaterials);
+        defs.put("old_materials", oldMaterials);
+        defs.put("indices", indices);
+        return defs;
+    }
+
+    @Override
+    public void enable() {
+        Sponge.getEventManager().registerListeners(Denizen2Sponge.instance, this);
+    }
+
+    @Override
+    public void disable() {
+        Sponge.getEventManager().unregisterListeners(this);
+    }
+
+    @Listener
+    public void onBlocksChange(ChangeBlockEvent evt) {
+        List<Transaction<BlockSnapshot>> blocks = evt.getTransactions();
+        DispatchIndex index = D2SpongeEventHelper.getDispatchIndex(getName(), INDEX_KEYS, this::error);
+        IdentityHashMap<ScriptEventData, List<Integer>> found = new IdentityHashMap<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            Transaction<BlockSnapshot> block = blocks.get(i);
+            Optional<Location<World>> location = block.getFinal().getLocation();
+            if (!block.isValid() || !location.isPresent()) {
+                continue;
+            }
+            Set<ScriptEventData> candidates = index.getCandidates(block.getFinal().getState().getType(),
+                    block.getOriginal().getState().getType(), location.get().getExtent().getUniqueId());
+            for (ScriptEventData data : candidates) {
+                if (matches(data, block, location.get())) {
+                    found.computeIfAbsent(data, k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+        if (found.isEmpty()) {
+            return;
+        }
+        IdentityHashMap<ScriptEventData, int[]> matched = new IdentityHashMap<>();
+        for (Map.Entry<ScriptEventData, List<Integer>> entry : found.entrySet()) {
+            matched.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        BlocksChangeScriptEvent event = (BlocksChangeScriptEvent) clone();
+        event.internal = evt;
+        event.transactions = blocks;
+        event.matched = matched;
+        event.cancelled = evt.isCancelled();
+        Timings.runEvent(event);
+        evt.setCancelled(event.cancelled);
+    }
+
+    @Override
+    public void applyDetermination(boolean errors, String determination, AbstractTagObject value) {
+        if (determination.equals("cancel_blocks")) {
+            for (AbstractTagObject ato : ListTag.getFor(this::error, value).getInternal()) {
+                long index = IntegerTag.getFor(this::error, ato).getInternal();
+                if (index < 1 || index > transactions.size()) {
+                    error("Invalid block index: " + index + "!");
+                    return;
+                }
+                transactions.get((int) index - 1).setValid(false);
+            }
+        }
+        else {
+            super.applyDetermination(errors, determination, value);
+        }
+    }
+}
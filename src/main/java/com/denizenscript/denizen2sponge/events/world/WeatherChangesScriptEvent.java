@@ -7,6 +7,7 @@ import com.denizenscript.denizen2core.tags.objects.TextTag;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.WorldTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Listener;
@@ -99,12 +100,12 @@ public class WeatherChangesScriptEvent extends ScriptEvent {
     public void onWeatherChanges(ChangeWorldWeatherEvent evt) {
         WeatherChangesScriptEvent event = (WeatherChangesScriptEvent) clone();
         event.internal = evt;
-        event.world = new WorldTag(evt.getTargetWorld());
+        event.world = WorldTag.getForWorld(evt.getTargetWorld());
         event.duration = new DurationTag(evt.getDuration() * (1.0 / 20.0));
         event.new_weather = new TextTag(Utilities.getIdWithoutDefaultPrefix(evt.getWeather().getId()));
         event.old_weather = new TextTag(Utilities.getIdWithoutDefaultPrefix(evt.getInitialWeather().getId()));
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
@@ -5,6 +5,7 @@ import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.events.D2SpongeEventHelper;
 import com.denizenscript.denizen2sponge.tags.objects.WorldTag;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.world.LoadWorldEvent;
@@ -76,9 +77,9 @@ public class WorldLoadsScriptEvent extends ScriptEvent {
     public void onWorldLoads(LoadWorldEvent evt) {
         WorldLoadsScriptEvent event = (WorldLoadsScriptEvent) clone();
         event.internal = evt;
-        event.world = new WorldTag(evt.getTargetWorld());
+        event.world = WorldTag.getForWorld(evt.getTargetWorld());
         event.cancelled = evt.isCancelled();
-        event.run();
+        Timings.runEvent(event);
         evt.setCancelled(event.cancelled);
     }
 
@@ -0,0 +1,115 @@
+package com.denizenscript.denizen2sponge.spongecommands;
+
+import com.denizenscript.denizen2core.utilities.CoreUtilities;
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.denizenscript.denizen2sponge.utilities.QueueScheduler;
+import com.denizenscript.denizen2sponge.utilities.Timings;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.command.CommandException;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.command.args.GenericArguments;
+import org.spongepowered.api.command.spec.CommandExecutor;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.util.List;
+import java.util.Optional;
+
+public class TimingsCommand implements CommandExecutor {
+
+    // <--[explanation]
+    // @Since 0.5.5
+    // @Name The Timings Command
+    // @Group Sponge Commands
+    // @Description
+    // The /dtimings command shows how much time Denizen2 script events, script commands and the central tick loop
+    // are taking up on the server.
+    //
+    // Collection is off by default. Run: /dtimings on
+    // to start collecting, /dtimings off to stop, and /dtimings reset to throw away collected data.
+    // Run /dtimings on its own to see the busiest events and commands since collection started.
+    //
+    // Event times include matching the event's script paths and running the queues it starts,
+    // up until those queues first wait.
+    // The same data is available to scripts through <server.timings>.
+    // -->
+
+    public static final int REPORT_SIZE = 10;
+
+    public static void register() {
+        CommandSpec cmd = CommandSpec.builder()
+                .description(Text.of("Shows Denizen2 script timings. Use on, off or reset to control collection."))
+                .permission("denizen2.commands.timings")
+                .arguments(GenericArguments.optional(GenericArguments.string(Text.of("action"))))
+                .executor(new TimingsCommand())
+                .build();
+        Sponge.getCommandManager().register(Denizen2Sponge.instance, cmd, "dtimings", "denizentimings");
+    }
+
+    @Override
+    public CommandResult execute(CommandSource commandSource, CommandContext commandContext) throws CommandException {
+        Optional<String> action = commandContext.getOne("action");
+        String act = action.isPresent() ? CoreUtilities.toLowerCase(action.get()) : "report";
+        switch (act) {
+            case "on":
+                Timings.enable();
+                commandSource.sendMessage(Text.of(TextColors.GREEN, "Denizen2 timings enabled."));
+                break;
+            case "off":
+                Timings.disable();
+                commandSource.sendMessage(Text.of(TextColors.GREEN, "Denizen2 timings disabled."));
+                break;
+            case "reset":
+                Timings.reset();
+                commandSource.sendMessage(Text.of(TextColors.GREEN, "Denizen2 timings reset."));
+                break;
+            case "report":
+                report(commandSource);
+                break;
+            default:
+                throw new CommandException(Text.of("Unknown action '" + act + "', expected on, off or reset."));
+        }
+        return CommandResult.success();
+    }
+
+    public static void report(CommandSource source) {
+        if (!Timings.enabled) {
+            source.sendMessage(Text.of(TextColors.YELLOW, "Denizen2 timings are disabled, use /dtimings on to enable them."));
+            return;
+        }
+        long seconds = (System.currentTimeMillis() - Timings.enabledSince) / 1000;
+        source.sendMessage(Text.of(TextColors.GOLD, "Denizen2 timings over the last " + seconds + " seconds:"));
+        source.sendMessage(line(Timings.tick));
+        if (QueueScheduler.isBudgeted()) {
+            source.sendMessage(Text.of(TextColors.WHITE, String.format("  %.1fms budget: %d overruns (%.2fms over), "
+                    + "%d deferred ticks, %.2fms longest tick", QueueScheduler.budgetNanos / 1_000_000.0,
+                    QueueScheduler.overruns, QueueScheduler.overrunNanos / 1_000_000.0, QueueScheduler.deferredTicks,
+                    QueueScheduler.maxTickNanos / 1_000_000.0)));
+        }
+        source.sendMessage(Text.of(TextColors.GOLD, "Events:"));
+        section(source, Timings.sorted(Timings.events));
+        source.sendMessage(Text.of(TextColors.GOLD, "Commands:"));
+        section(source, Timings.sorted(Timings.commands));
+    }
+
+    private static void section(CommandSource source, List<Timings.Record> records) {
+        if (records.isEmpty()) {
+            source.sendMessage(Text.of(TextColors.GRAY, "  (none)"));
+            return;
+        }
+        for (int i = 0; i < Math.min(REPORT_SIZE, records.size()); i++) {
+            source.sendMessage(line(records.get(i)));
+        }
+    }
+
+    private static Text line(Timings.Record record) {
+        double totalMs = record.nanos / 1_000_000.0;
+        double avgMs = record.count == 0 ? 0 : totalMs / record.count;
+        return Text.of(TextColors.AQUA, "  " + record.name, TextColors.WHITE,
+                String.format(": %d runs, %.2fms total, %.3fms avg, %.2fms max, %dKB allocated",
+                        record.count, totalMs, avgMs, record.maxNanos / 1_000_000.0, record.allocated / 1024));
+    }
+}
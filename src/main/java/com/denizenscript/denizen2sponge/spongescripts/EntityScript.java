@@ -177,7 +177,7 @@ public class EntityScript extends CommandScript {
         EntityType entType = (EntityType) Utilities.getTypeWithDefaultPrefix(EntityType.class, baseStr);
         if (entType != null) {
             ent = new EntityTemplate(entType);
-            varBack.put("base", new EntityTypeTag(entType));
+            varBack.put("base", EntityTypeTag.getForType(entType));
         }
         else {
             String baseLow = CoreUtilities.toLowerCase(baseStr);
@@ -195,7 +195,7 @@ public class ItemScript extends CommandScript {
         MapTag flagsMap;
         Optional<FlagMap> fm = baseMat.getInternal().get(FlagHelper.FLAGMAP);
         if (fm.isPresent()) {
-            flagsMap = new MapTag(fm.get().flags.getInternal());
+            flagsMap = new MapTag(fm.get().getFlags().getInternal());
         }
         else {
             flagsMap = new MapTag();
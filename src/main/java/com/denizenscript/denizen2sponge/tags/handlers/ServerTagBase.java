@@ -6,15 +6,22 @@ import com.denizenscript.denizen2core.tags.TagData;
 import com.denizenscript.denizen2core.tags.objects.*;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2core.utilities.Function2;
-import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.tags.objects.*;
+import com.denizenscript.denizen2sponge.utilities.BlockRays;
 import com.denizenscript.denizen2sponge.utilities.BossBars;
+import com.denizenscript.denizen2sponge.utilities.EntityIndex;
+import com.denizenscript.denizen2sponge.utilities.Timings;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
+import com.denizenscript.denizen2sponge.utilities.flags.EntityFlags;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagIndex;
+import com.denizenscript.denizen2sponge.utilities.flags.ServerFlags;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.advancement.Advancement;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.boss.ServerBossBar;
+import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.util.blockray.BlockRayHit;
 import org.spongepowered.api.world.World;
 
 import java.util.*;
@@ -34,6 +41,30 @@ public class ServerTagBase extends AbstractTagBase {
         return "server";
     }
 
+    private static List<BlockRayHit<World>> getTargets(TagData dat) {
+        MapTag map = MapTag.getFor(dat.checkedError, dat.getNextModifier());
+        double range = map.getInternal().containsKey("range") ?
+                NumberTag.getFor(dat.checkedError, map.getInternal().get("range")).getInternal() : -1;
+        List<BlockRayHit<World>> hits = new ArrayList<>();
+        for (AbstractTagObject ato : ListTag.getFor(dat.checkedError, map.getInternal().get("entities")).getInternal()) {
+            Entity ent = EntityTag.getFor(dat.checkedError, ato).getInternal();
+            hits.add(BlockRays.getTargetCached(ent, range < 0 ? Utilities.getHandReach(ent) : range));
+        }
+        return hits;
+    }
+
+    private static List<Entity> getFlagged(TagData dat) {
+        String flagName = CoreUtilities.toLowerCase(dat.getNextModifier().toString());
+        List<Entity> flagged = new ArrayList<>();
+        for (UUID id : FlagIndex.getHolders(flagName)) {
+            Optional<Entity> ent = EntityIndex.getEntity(id);
+            if (ent.isPresent() && Utilities.flagIsValidAndNotExpired(dat.error, EntityFlags.getFlags(ent.get()), flagName)) {
+                flagged.add(ent.get());
+            }
+        }
+        return flagged;
+    }
+
     public final static HashMap<String, Function2<TagData, AbstractTagObject, AbstractTagObject>> handlers = new HashMap<>();
 
     static {
@@ -48,7 +79,7 @@ public class ServerTagBase extends AbstractTagBase {
         handlers.put("worlds", (dat, obj) -> {
             ListTag list = new ListTag();
             for (World world : Sponge.getServer().getWorlds()) {
-                list.getInternal().add(new WorldTag(world));
+                list.getInternal().add(WorldTag.getForWorld(world));
             }
             return list;
         });
@@ -180,8 +211,7 @@ public class ServerTagBase extends AbstractTagBase {
         // -->
         handlers.put("has_flag", (dat, obj) -> {
             String flagName = CoreUtilities.toLowerCase(dat.getNextModifier().toString());
-            MapTag flags = Denizen2Sponge.instance.serverFlagMap;
-            return BooleanTag.getForBoolean(Utilities.flagIsValidAndNotExpired(dat.error, flags, flagName));
+            return BooleanTag.getForBoolean(Utilities.flagIsValidAndNotExpired(dat.error, ServerFlags.getFlag(flagName)));
         });
         // <--[tag]
         // @Since 0.3.0
@@ -192,7 +222,7 @@ public class ServerTagBase extends AbstractTagBase {
         // @Returns the list of invalid (expired) flags on the server.
         // -->
         handlers.put("dead_flags", (dat, obj) -> {
-            MapTag flags = Denizen2Sponge.instance.serverFlagMap;
+            MapTag flags = ServerFlags.getFlags();
             ListTag invalid = new ListTag();
             for (Map.Entry<String, AbstractTagObject> flag : flags.getInternal().entrySet()) {
                 if (!Utilities.flagIsValidAndNotExpired(dat.error, flags, flag.getKey())) {
@@ -211,8 +241,8 @@ public class ServerTagBase extends AbstractTagBase {
         // Optionally don't specify anything to get the entire flag map.
         // -->
         handlers.put("flag", (dat, obj) -> {
-            MapTag flags = Denizen2Sponge.instance.serverFlagMap;
             if (!dat.hasNextModifier()) {
+                MapTag flags = ServerFlags.getFlags();
                 MapTag valid = new MapTag();
                 for (Map.Entry<String, AbstractTagObject> flag : flags.getInternal().entrySet()) {
                     if (Utilities.flagIsValidAndNotExpired(dat.error, flags, flag.getKey())) {
@@ -223,13 +253,14 @@ public class ServerTagBase extends AbstractTagBase {
                 return valid;
             }
             String flagName = CoreUtilities.toLowerCase(dat.getNextModifier().toString());
-            if (!Utilities.flagIsValidAndNotExpired(dat.error, flags, flagName)) {
+            AbstractTagObject flag = ServerFlags.getFlag(flagName);
+            if (!Utilities.flagIsValidAndNotExpired(dat.error, flag)) {
                 if (!dat.hasFallback()) {
                     dat.error.run("Invalid flag specified, not present on the server!");
                 }
                 return NullTag.NULL;
             }
-            MapTag smap = MapTag.getFor(dat.checkedError, flags.getInternal().get(flagName));
+            MapTag smap = MapTag.getFor(dat.checkedError, flag);
             if (smap == null) {
                 if (!dat.hasFallback()) {
                     dat.error.run("Invalid flag specified, not present on the server!");
@@ -239,6 +270,38 @@ public class ServerTagBase extends AbstractTagBase {
             return smap.getInternal().get("value");
         });
         // <--[tag]
+        // @Since 0.5.5
+        // @Name ServerBaseTag.flagged_entities[<TextTag>]
+        // @Updated 2026/10/18
+        // @Group Flag Data
+        // @ReturnType ListTag<EntityTag>
+        // @Returns a list of all loaded entities (including players) that have a flag with the specified key.
+        // -->
+        handlers.put("flagged_entities", (dat, obj) -> {
+            ListTag list = new ListTag();
+            for (Entity ent : getFlagged(dat)) {
+                list.getInternal().add(new EntityTag(ent));
+            }
+            return list;
+        });
+        // <--[tag]
+        // @Since 0.5.5
+        // @Name ServerBaseTag.flagged_players[<TextTag>]
+        // @Updated 2026/10/18
+        // @Group Flag Data
+        // @ReturnType ListTag<PlayerTag>
+        // @Returns a list of all online players that have a flag with the specified key.
+        // -->
+        handlers.put("flagged_players", (dat, obj) -> {
+            ListTag list = new ListTag();
+            for (Entity ent : getFlagged(dat)) {
+                if (ent instanceof Player) {
+                    list.getInternal().add(new PlayerTag((Player) ent));
+                }
+            }
+            return list;
+        });
+        // <--[tag]
         // @Since 0.4.0
         // @Name ServerBaseTag.current_bossbars
         // @Updated 2018/01/30
@@ -307,6 +370,51 @@ public class ServerTagBase extends AbstractTagBase {
         });
         // <--[tag]
         // @Since 0.5.5
+        // @Name ServerBaseTag.timings
+        // @Updated 2026/10/18
+        // @Group Server Information
+        // @ReturnType MapTag
+        // @Returns the script timings collected since /dtimings was enabled, keyed by 'tick', 'events' and 'commands'.
+        // -->
+        handlers.put("timings", (dat, obj) -> Timings.toMapTag());
+        // <--[tag]
+        // @Since 0.5.5
+        // @Name ServerBaseTag.target_blocks[<MapTag>]
+        // @Updated 2026/10/18
+        // @Group Entity Target
+        // @ReturnType ListTag<LocationTag>
+        // @Returns the block each of the specified entities is looking at, in the same order, up to a maximum distance.
+        // Input is entities:<ListTag>|range:<NumberTag>
+        // If no range is specified, each entity's default hand-reach distance is used.
+        // @Note Each answer is reused for the rest of the tick while the entity hasn't moved or turned.
+        // -->
+        handlers.put("target_blocks", (dat, obj) -> {
+            ListTag result = new ListTag();
+            for (BlockRayHit<World> hit : getTargets(dat)) {
+                result.getInternal().add(new LocationTag(hit.getLocation()));
+            }
+            return result;
+        });
+        // <--[tag]
+        // @Since 0.5.5
+        // @Name ServerBaseTag.precise_target_locations[<MapTag>]
+        // @Updated 2026/10/18
+        // @Group Entity Target
+        // @ReturnType ListTag<LocationTag>
+        // @Returns the exact location each of the specified entities is looking at, in the same order, up to a maximum distance.
+        // Input is entities:<ListTag>|range:<NumberTag>
+        // If no range is specified, each entity's default hand-reach distance is used.
+        // @Note Each answer is reused for the rest of the tick while the entity hasn't moved or turned.
+        // -->
+        handlers.put("precise_target_locations", (dat, obj) -> {
+            ListTag result = new ListTag();
+            for (BlockRayHit<World> hit : getTargets(dat)) {
+                result.getInternal().add(new LocationTag(hit.getX(), hit.getY(), hit.getZ(), hit.getExtent()));
+            }
+            return result;
+        });
+        // <--[tag]
+        // @Since 0.5.5
         // @Name ServerBaseTag.match_player[<TextTag>]
         // @Updated 2018/06/15
         // @Group Server Tools
@@ -10,6 +10,7 @@ import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.block.BlockType;
 
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BlockTypeTag extends AbstractTagObject {
 
@@ -37,6 +38,20 @@ public class BlockTypeTag extends AbstractTagObject {
         this.internal = internal;
     }
 
+    // Block types are fixed for the life of the server, so each one gets a single shared tag.
+    private static final ConcurrentHashMap<BlockType, BlockTypeTag> interned = new ConcurrentHashMap<>();
+
+    public static BlockTypeTag getForType(BlockType type) {
+        if (type == null) {
+            return new BlockTypeTag(null);
+        }
+        BlockTypeTag tag = interned.get(type);
+        if (tag == null) {
+            tag = interned.computeIfAbsent(type, BlockTypeTag::new);
+        }
+        return tag;
+    }
+
     public BlockType getInternal() {
         return internal;
     }
@@ -62,7 +77,7 @@ public class BlockTypeTag extends AbstractTagObject {
         // @ReturnType ItemTypeTag
         // @Returns the item type equivalent of this block type.
         // -->
-        handlers.put("item_type", (dat, obj) -> new ItemTypeTag(((BlockTypeTag) obj).internal.getItem().orElseGet(() -> {
+        handlers.put("item_type", (dat, obj) -> ItemTypeTag.getForType(((BlockTypeTag) obj).internal.getItem().orElseGet(() -> {
             dat.error.run("This block type does not have an item type equivalent!");
             return null;
         })));
@@ -84,7 +99,7 @@ public class BlockTypeTag extends AbstractTagObject {
             error.run("Invalid BlockTypeTag input!");
             return null;
         }
-        return new BlockTypeTag(blockType);
+        return BlockTypeTag.getForType(blockType);
     }
 
     public static BlockTypeTag getFor(Action<String> error, AbstractTagObject text) {
@@ -110,4 +125,20 @@ public class BlockTypeTag extends AbstractTagObject {
     public String toString() {
         return internal.getId();
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BlockTypeTag)) {
+            return false;
+        }
+        return internal == ((BlockTypeTag) other).internal;
+    }
+
+    @Override
+    public int hashCode() {
+        return internal == null ? 0 : internal.hashCode();
+    }
 }
@@ -3,22 +3,26 @@ package com.denizenscript.denizen2sponge.tags.objects;
 import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.TagData;
 import com.denizenscript.denizen2core.tags.objects.BooleanTag;
+import com.denizenscript.denizen2core.tags.objects.IntegerTag;
 import com.denizenscript.denizen2core.tags.objects.ListTag;
+import com.denizenscript.denizen2core.tags.objects.MapTag;
 import com.denizenscript.denizen2core.tags.objects.NumberTag;
 import com.denizenscript.denizen2core.tags.objects.TextTag;
 import com.denizenscript.denizen2core.utilities.Action;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2core.utilities.Function2;
+import com.denizenscript.denizen2sponge.utilities.BlockScanner;
+import com.denizenscript.denizen2sponge.utilities.ParseCache;
 import com.denizenscript.denizen2sponge.utilities.UtilCuboid;
 import com.denizenscript.denizen2sponge.utilities.UtilLocation;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.util.AABB;
-import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class CuboidTag extends AbstractTagObject {
 
@@ -51,6 +55,30 @@ public class CuboidTag extends AbstractTagObject {
                 && point.x <= internal.max.x && point.y <= internal.max.y && point.z <= internal.max.z;
     }
 
+    public static Set<BlockType> getBlockTypes(Action<String> error, AbstractTagObject list) {
+        Set<BlockType> types = new HashSet<>();
+        for (AbstractTagObject ato : ListTag.getFor(error, list).getInternal()) {
+            types.add(BlockTypeTag.getFor(error, ato).getInternal());
+        }
+        return types;
+    }
+
+    /**
+     * Adds the location of each block in this cuboid (of the given types, if any) to the output list,
+     * reading one chunk at a time. A limit of zero or less means no limit.
+     */
+    public void addBlockLocations(Set<BlockType> types, int limit, List<AbstractTagObject> output) {
+        World world = internal.min.world;
+        int maxx = (int) Math.ceil(internal.max.x + 0.01) - 1;
+        int maxy = (int) Math.ceil(internal.max.y + 0.01) - 1;
+        int maxz = (int) Math.ceil(internal.max.z + 0.01) - 1;
+        BlockScanner.scan(world, (int) Math.floor(internal.min.x), (int) Math.floor(internal.min.y), (int) Math.floor(internal.min.z),
+                maxx, maxy, maxz, types, (x, y, z) -> {
+                    output.add(new LocationTag(x, y, z, world));
+                    return limit <= 0 || output.size() < limit;
+                });
+    }
+
     public final static HashMap<String, Function2<TagData, AbstractTagObject, AbstractTagObject>> handlers = new HashMap<>();
 
     static {
@@ -64,30 +92,37 @@ public class CuboidTag extends AbstractTagObject {
         // @Note Partially covered blocks are counted.
         // -->
         handlers.put("block_locations", (dat, obj) -> {
-            List<BlockType> valids = null;
+            Set<BlockType> valids = null;
             if (dat.hasNextModifier()) {
-                AbstractTagObject mod = dat.getNextModifier();
-                valids = new ArrayList<>();
-                for (AbstractTagObject ato : ListTag.getFor(dat.checkedError, mod).getInternal()) {
-                    BlockTypeTag btt = BlockTypeTag.getFor(dat.checkedError, ato);
-                    valids.add(btt.getInternal());
-                }
+                valids = getBlockTypes(dat.checkedError, dat.getNextModifier());
             }
-            CuboidTag ct = (CuboidTag) obj;
             ListTag lt = new ListTag();
-            int maxx = (int) Math.ceil(ct.internal.max.x + 0.01);
-            int maxy = (int) Math.ceil(ct.internal.max.y + 0.01);
-            int maxz = (int) Math.ceil(ct.internal.max.z + 0.01);
-            for (int x = (int) Math.floor(ct.internal.min.x); x < maxx; x++) {
-                for (int y = (int) Math.floor(ct.internal.min.y); y < maxy; y++) {
-                    for (int z = (int) Math.floor(ct.internal.min.z); z < maxz; z++) {
-                        Location<World> loc = new Location<>(ct.internal.min.world, x, y, z);
-                        if (valids == null || valids.contains(loc.getBlockType())) {
-                            lt.getInternal().add(new LocationTag(loc));
-                        }
-                    }
-                }
+            ((CuboidTag) obj).addBlockLocations(valids, 0, lt.getInternal());
+            return lt;
+        });
+        // <--[tag]
+        // @Since 0.5.5
+        // @Name CuboidTag.find_blocks[<MapTag>]
+        // @Updated 2026/10/18
+        // @Group Connected Information
+        // @ReturnType ListTag<LocationTag>
+        // @Returns the location of blocks in this cuboid, of any of the given types (or any type if unspecified).
+        // Input is types:<ListTag>|limit:<IntegerTag>
+        // @Note Partially covered blocks are counted. Stops reading blocks once the limit is reached.
+        // Blocks are listed one chunk at a time, not in strict coordinate order.
+        // -->
+        handlers.put("find_blocks", (dat, obj) -> {
+            MapTag map = MapTag.getFor(dat.checkedError, dat.getNextModifier());
+            Set<BlockType> valids = null;
+            if (map.getInternal().containsKey("types")) {
+                valids = getBlockTypes(dat.checkedError, map.getInternal().get("types"));
+            }
+            int limit = 0;
+            if (map.getInternal().containsKey("limit")) {
+                limit = (int) IntegerTag.getFor(dat.checkedError, map.getInternal().get("limit")).getInternal();
             }
+            ListTag lt = new ListTag();
+            ((CuboidTag) obj).addBlockLocations(valids, limit, lt.getInternal());
             return lt;
         });
         // <--[tag]
@@ -130,10 +165,17 @@ public class CuboidTag extends AbstractTagObject {
         // @Returns the world of the location.
         // @Example "0,1,2/4,5,6/world" .world returns "world".
         // -->
-        handlers.put("world", (dat, obj) -> new WorldTag(((CuboidTag) obj).internal.min.world));
+        handlers.put("world", (dat, obj) -> WorldTag.getForWorld(((CuboidTag) obj).internal.min.world));
     }
 
+    // Region flags and cuboid switches hand back the same text every time they're checked.
+    private static final ParseCache<UtilCuboid> parsed = new ParseCache<>(1024, cuboid -> cuboid.min.world);
+
     public static CuboidTag getFor(Action<String> error, String text) {
+        UtilCuboid known = parsed.get(text);
+        if (known != null) {
+            return new CuboidTag(known.min, known.max);
+        }
         List<String> split = CoreUtilities.split(text, '/', 3);
         if (split.size() != 3) {
             error.run("Invalid Cuboid tag specifications!");
@@ -149,8 +191,10 @@ public class CuboidTag extends AbstractTagObject {
         NumberTag z2 = NumberTag.getFor(error, maxes.get(2));
         String worldn = split.get(2);
         WorldTag world = WorldTag.getFor(error, worldn);
-        return new CuboidTag(new UtilLocation(x.getInternal(), y.getInternal(), z.getInternal(), world.getInternal()),
+        CuboidTag result = new CuboidTag(new UtilLocation(x.getInternal(), y.getInternal(), z.getInternal(), world.getInternal()),
                 new UtilLocation(x2.getInternal(), y2.getInternal(), z2.getInternal(), world.getInternal()));
+        parsed.put(text, new UtilCuboid(result.internal.min, result.internal.max));
+        return result;
     }
 
     public static CuboidTag getFor(Action<String> error, AbstractTagObject text) {
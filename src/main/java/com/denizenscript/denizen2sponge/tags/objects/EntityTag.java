@@ -7,10 +7,12 @@ import com.denizenscript.denizen2core.utilities.Action;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2core.utilities.Function2;
 import com.denizenscript.denizen2sponge.spongescripts.EntityScript;
+import com.denizenscript.denizen2sponge.utilities.BlockRays;
 import com.denizenscript.denizen2sponge.utilities.DataKeys;
+import com.denizenscript.denizen2sponge.utilities.EntityGrid;
+import com.denizenscript.denizen2sponge.utilities.EntityIndex;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
-import com.denizenscript.denizen2sponge.utilities.flags.FlagHelper;
-import com.denizenscript.denizen2sponge.utilities.flags.FlagMap;
+import com.denizenscript.denizen2sponge.utilities.flags.EntityFlags;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.data.key.Key;
 import org.spongepowered.api.data.key.Keys;
@@ -38,7 +40,6 @@ import org.spongepowered.api.util.Color;
 import org.spongepowered.api.util.blockray.BlockRay;
 import org.spongepowered.api.util.blockray.BlockRayHit;
 import org.spongepowered.api.world.World;
-import org.spongepowered.api.world.extent.EntityUniverse;
 
 import java.util.*;
 
@@ -67,17 +68,11 @@ public class EntityTag extends AbstractTagObject {
     public final static HashMap<String, Function2<TagData, AbstractTagObject, AbstractTagObject>> handlers = new HashMap<>();
 
     public EntityScript getSourceScript() {
-        Optional<FlagMap> fm = internal.get(FlagHelper.FLAGMAP);
-        if (fm.isPresent()) {
-            MapTag flags = fm.get().flags;
-            if (flags.getInternal().containsKey("_d2_script")) {
-                AbstractTagObject scriptObj = flags.getInternal().get("_d2_script");
-                if (scriptObj instanceof ScriptTag) {
-                    ScriptTag script = (ScriptTag) scriptObj;
-                    if (script.getInternal() instanceof EntityScript) {
-                        return (EntityScript) script.getInternal();
-                    }
-                }
+        AbstractTagObject scriptObj = EntityFlags.getFlags(internal).getInternal().get("_d2_script");
+        if (scriptObj instanceof ScriptTag) {
+            ScriptTag script = (ScriptTag) scriptObj;
+            if (script.getInternal() instanceof EntityScript) {
+                return (EntityScript) script.getInternal();
             }
         }
         return null;
@@ -101,7 +96,7 @@ public class EntityTag extends AbstractTagObject {
         // @ReturnType EntiyTypeTag
         // @Returns the type of this entity.
         // -->
-        handlers.put("entity_type", (dat, obj) -> new EntityTypeTag(((EntityTag) obj).internal.getType()));
+        handlers.put("entity_type", (dat, obj) -> EntityTypeTag.getForType(((EntityTag) obj).internal.getType()));
         // <--[tag]
         // @Since 0.3.0
         // @Name EntityTag.friendly_name
@@ -286,15 +281,7 @@ public class EntityTag extends AbstractTagObject {
         // -->
         handlers.put("has_flag", (dat, obj) -> {
             String flagName = CoreUtilities.toLowerCase(dat.getNextModifier().toString());
-            MapTag flags;
-            Entity e = ((EntityTag) obj).internal;
-            Optional<FlagMap> fm = e.get(FlagHelper.FLAGMAP);
-            if (fm.isPresent()) {
-                flags = fm.get().flags;
-            }
-            else {
-                flags = new MapTag();
-            }
+            MapTag flags = EntityFlags.getFlags(((EntityTag) obj).internal);
             return BooleanTag.getForBoolean(Utilities.flagIsValidAndNotExpired(dat.error, flags, flagName));
         });
         // <--[tag]
@@ -306,15 +293,7 @@ public class EntityTag extends AbstractTagObject {
         // @Returns the list of invalid (expired) flags on this entity.
         // -->
         handlers.put("dead_flags", (dat, obj) -> {
-            MapTag flags;
-            Entity e = ((EntityTag) obj).internal;
-            Optional<FlagMap> fm = e.get(FlagHelper.FLAGMAP);
-            if (fm.isPresent()) {
-                flags = fm.get().flags;
-            }
-            else {
-                flags = new MapTag();
-            }
+            MapTag flags = EntityFlags.getFlags(((EntityTag) obj).internal);
             ListTag invalid = new ListTag();
             for (Map.Entry<String, AbstractTagObject> flag : flags.getInternal().entrySet()) {
                 if (!Utilities.flagIsValidAndNotExpired(dat.error, flags, flag.getKey())) {
@@ -333,15 +312,7 @@ public class EntityTag extends AbstractTagObject {
         // Optionally don't specify anything to get the entire flag map.
         // -->
         handlers.put("flag", (dat, obj) -> {
-            MapTag flags;
-            Entity e = ((EntityTag) obj).internal;
-            Optional<FlagMap> fm = e.get(FlagHelper.FLAGMAP);
-            if (fm.isPresent()) {
-                flags = fm.get().flags;
-            }
-            else {
-                flags = new MapTag();
-            }
+            MapTag flags = EntityFlags.getFlags(((EntityTag) obj).internal);
             if (!dat.hasNextModifier()) {
                 MapTag valid = new MapTag();
                 for (Map.Entry<String, AbstractTagObject> flag : flags.getInternal().entrySet()) {
@@ -444,9 +415,9 @@ public class EntityTag extends AbstractTagObject {
             }
             double range = NumberTag.getFor(dat.checkedError, map.getInternal().get("range")).getInternal();
             Entity source = ((EntityTag) obj).internal;
-            Collection<Entity> ents = source.getNearbyEntities(range);
-            for (Entity ent : ents) {
-                if ((requiredTypeTag == null || ent.getType().equals(requiredTypeTag.getInternal())) && !ent.equals(source)) {
+            for (Entity ent : EntityGrid.getNearby(source.getWorld(), source.getLocation().getPosition(), range,
+                    requiredTypeTag == null ? null : requiredTypeTag.getInternal(), true)) {
+                if (!ent.equals(source)) {
                     list.getInternal().add(new EntityTag(ent));
                 }
             }
@@ -515,7 +486,7 @@ public class EntityTag extends AbstractTagObject {
         // @ReturnType BlockTypeTag
         // @Returns the block this falling block is representing. Falling block entities only.
         // -->
-        handlers.put("falling_block", (dat, obj) -> new BlockTypeTag(((FallingBlock) ((EntityTag) obj).internal).blockState().get().getType()));
+        handlers.put("falling_block", (dat, obj) -> BlockTypeTag.getForType(((FallingBlock) ((EntityTag) obj).internal).blockState().get().getType()));
         // <--[tag]
         // @Since 0.3.0
         // @Name EntityTag.can_drop_as_item
@@ -831,10 +802,9 @@ public class EntityTag extends AbstractTagObject {
         // -->
         handlers.put("target_block", (dat, obj) -> {
             Entity ent = ((EntityTag) obj).internal;
-            return new LocationTag(BlockRay.from(ent)
-                    .stopFilter(BlockRay.continueAfterFilter(BlockRay.onlyAirFilter(), 1))
-                    .distanceLimit(dat.hasNextModifier() ? NumberTag.getFor(dat.checkedError, dat.getNextModifier()).getInternal() :
-                            (Utilities.getHandReach(ent))).build().end().get().getLocation());
+            return new LocationTag(BlockRays.getTarget(ent, dat.hasNextModifier() ?
+                    NumberTag.getFor(dat.checkedError, dat.getNextModifier()).getInternal() :
+                    (Utilities.getHandReach(ent))).getLocation());
         });
         // <--[tag]
         // @Since 0.3.0
@@ -847,10 +817,10 @@ public class EntityTag extends AbstractTagObject {
         // -->
         handlers.put("precise_target_location", (dat, obj) -> {
             Entity ent = ((EntityTag) obj).internal;
-            BlockRayHit hit = BlockRay.from(ent).stopFilter(BlockRay.continueAfterFilter(BlockRay.onlyAirFilter(), 1))
-                    .distanceLimit(dat.hasNextModifier() ? NumberTag.getFor(dat.checkedError, dat.getNextModifier()).getInternal() :
-                            (Utilities.getHandReach(ent))).build().end().get();
-            return new LocationTag(hit.getX(), hit.getY(), hit.getZ(), (World) hit.getExtent());
+            BlockRayHit<World> hit = BlockRays.getTarget(ent, dat.hasNextModifier() ?
+                    NumberTag.getFor(dat.checkedError, dat.getNextModifier()).getInternal() :
+                    (Utilities.getHandReach(ent)));
+            return new LocationTag(hit.getX(), hit.getY(), hit.getZ(), hit.getExtent());
         });
         // <--[tag]
         // @Since 0.3.0
@@ -886,13 +856,11 @@ public class EntityTag extends AbstractTagObject {
             if (map.getInternal().containsKey("type")) {
                 requiredTypeTag = EntityTypeTag.getFor(dat.checkedError, map.getInternal().get("type"));
             }
-            Set<EntityUniverse.EntityHit> entHits = ent.getWorld()
-                    .getIntersectingEntities(ent, map.getInternal().containsKey("range") ?
-                            NumberTag.getFor(dat.checkedError, map.getInternal().get("range")).getInternal() :
-                            (Utilities.getHandReach(ent)));
-            for (EntityUniverse.EntityHit entHit : entHits) {
-                Entity hit = entHit.getEntity();
-                if ((requiredTypeTag == null || hit.getType().equals(requiredTypeTag.getInternal())) && !hit.equals(ent)) {
+            double range = map.getInternal().containsKey("range") ?
+                    NumberTag.getFor(dat.checkedError, map.getInternal().get("range")).getInternal() :
+                    (Utilities.getHandReach(ent));
+            for (Entity hit : EntityGrid.getInLineOfSight(ent, range, requiredTypeTag == null ? null : requiredTypeTag.getInternal())) {
+                if (!hit.equals(ent)) {
                     list.getInternal().add(new EntityTag(hit));
                 }
             }
@@ -1027,11 +995,9 @@ public class EntityTag extends AbstractTagObject {
                 error.run("Invalid EntityTag UUID input (input is not a valid UUID)!");
                 return null;
             }
-            for (World world : Sponge.getServer().getWorlds()) {
-                Optional<Entity> e = world.getEntity(uuid);
-                if (e.isPresent()) {
-                    return new EntityTag(e.get());
-                }
+            Optional<Entity> e = EntityIndex.getEntity(uuid);
+            if (e.isPresent()) {
+                return new EntityTag(e.get());
             }
             error.run("Invalid EntityTag UUID input (that UUID cannot be matched to a real entity)!");
             return null;
@@ -1064,9 +1030,15 @@ public class EntityTag extends AbstractTagObject {
 
     @Override
     public String toString() {
-        return internal.getUniqueId().toString();
+        if (uuidString == null) {
+            uuidString = internal.getUniqueId().toString();
+        }
+        return uuidString;
     }
 
+    // An entity's UUID never changes, so this never needs clearing.
+    private String uuidString = null;
+
 
     @Override
     public String getTagTypeName() {
@@ -10,6 +10,7 @@ import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.entity.EntityType;
 
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EntityTypeTag extends AbstractTagObject {
 
@@ -37,6 +38,20 @@ public class EntityTypeTag extends AbstractTagObject {
         this.internal = internal;
     }
 
+    // Entity types are fixed for the life of the server, so each one gets a single shared tag.
+    private static final ConcurrentHashMap<EntityType, EntityTypeTag> interned = new ConcurrentHashMap<>();
+
+    public static EntityTypeTag getForType(EntityType type) {
+        if (type == null) {
+            return new EntityTypeTag(null);
+        }
+        EntityTypeTag tag = interned.get(type);
+        if (tag == null) {
+            tag = interned.computeIfAbsent(type, EntityTypeTag::new);
+        }
+        return tag;
+    }
+
     public EntityType getInternal() {
         return internal;
     }
@@ -72,7 +87,7 @@ public class EntityTypeTag extends AbstractTagObject {
             error.run("Invalid EntityTypeTag input!");
             return null;
         }
-        return new EntityTypeTag(type);
+        return EntityTypeTag.getForType(type);
     }
 
     public static EntityTypeTag getFor(Action<String> error, AbstractTagObject text) {
@@ -98,4 +113,20 @@ public class EntityTypeTag extends AbstractTagObject {
     public String toString() {
         return internal.getId();
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof EntityTypeTag)) {
+            return false;
+        }
+        return internal == ((EntityTypeTag) other).internal;
+    }
+
+    @Override
+    public int hashCode() {
+        return internal == null ? 0 : internal.hashCode();
+    }
 }
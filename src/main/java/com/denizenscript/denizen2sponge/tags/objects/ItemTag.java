@@ -44,23 +44,28 @@ public class ItemTag extends AbstractTagObject {
         internal = itm.copy();
     }
 
+    // The stack is a private copy, so the only way it changes is through getInternal().
+    // Anything modifying the returned stack in place should call markChanged() after.
     public ItemStack getInternal() {
         return internal;
     }
 
+    private String cachedString = null;
+
+    public void markChanged() {
+        cachedString = null;
+    }
+
     public final static HashMap<String, Function2<TagData, AbstractTagObject, AbstractTagObject>> handlers = new HashMap<>();
 
     public ItemScript getSourceScript() {
         Optional<FlagMap> fm = internal.get(FlagHelper.FLAGMAP);
         if (fm.isPresent()) {
-            MapTag flags = fm.get().flags;
-            if (flags.getInternal().containsKey("_d2_script")) {
-                AbstractTagObject scriptObj = flags.getInternal().get("_d2_script");
-                if (scriptObj instanceof ScriptTag) {
-                    ScriptTag script = (ScriptTag) scriptObj;
-                    if (script.getInternal() instanceof ItemScript) {
-                        return (ItemScript) script.getInternal();
-                    }
+            AbstractTagObject scriptObj = fm.get().getFlag("_d2_script");
+            if (scriptObj instanceof ScriptTag) {
+                ScriptTag script = (ScriptTag) scriptObj;
+                if (script.getInternal() instanceof ItemScript) {
+                    return (ItemScript) script.getInternal();
                 }
             }
         }
@@ -115,20 +120,13 @@ public class ItemTag extends AbstractTagObject {
         // Optionally don't specify anything to get the entire flag map.
         // -->
         handlers.put("flag", (dat, obj) -> {
-            MapTag flags;
             ItemStack e = ((ItemTag) obj).internal;
             Optional<FlagMap> fm = e.get(FlagHelper.FLAGMAP);
-            if (fm.isPresent()) {
-                flags = fm.get().flags;
-            }
-            else {
-                flags = new MapTag();
-            }
             if (!dat.hasNextModifier()) {
-                return flags;
+                return fm.isPresent() ? fm.get().getFlags() : new MapTag();
             }
             String flagName = CoreUtilities.toLowerCase(dat.getNextModifier().toString());
-            AbstractTagObject ato = flags.getInternal().get(flagName);
+            AbstractTagObject ato = fm.isPresent() ? fm.get().getFlag(flagName) : null;
             if (ato == null) {
                 if (!dat.hasFallback()) {
                     dat.error.run("Invalid flag specified, not present on this item!");
@@ -165,16 +163,9 @@ public class ItemTag extends AbstractTagObject {
         // -->
         handlers.put("has_flag", (dat, obj) -> {
             String flagName = CoreUtilities.toLowerCase(dat.getNextModifier().toString());
-            MapTag flags;
             ItemStack e = ((ItemTag) obj).internal;
             Optional<FlagMap> fm = e.get(FlagHelper.FLAGMAP);
-            if (fm.isPresent()) {
-                flags = fm.get().flags;
-            }
-            else {
-                flags = new MapTag();
-            }
-            return BooleanTag.getForBoolean(flags.getInternal().containsKey(flagName));
+            return BooleanTag.getForBoolean(fm.isPresent() && fm.get().hasFlag(flagName));
         });
         // <--[tag]
         // @Since 0.3.0
@@ -184,7 +175,7 @@ public class ItemTag extends AbstractTagObject {
         // @ReturnType ItemTypeTag
         // @Returns the type of the item.
         // -->
-        handlers.put("item_type", (dat, obj) -> new ItemTypeTag(((ItemTag) obj).internal.getType()));
+        handlers.put("item_type", (dat, obj) -> ItemTypeTag.getForType(((ItemTag) obj).internal.getType()));
         // <--[tag]
         // @Since 0.3.0
         // @Name ItemTag.max_stack_quantity
@@ -293,7 +284,7 @@ public class ItemTag extends AbstractTagObject {
             ItemStack e = ((ItemTag) obj).internal.copy();
             Optional<FlagMap> fm = e.get(FlagHelper.FLAGMAP);
             if (fm.isPresent()) {
-                flags = new MapTag(fm.get().flags.getInternal());
+                flags = new MapTag(fm.get().getFlags().getInternal());
             }
             else {
                 flags = new MapTag();
@@ -357,7 +348,7 @@ public class ItemTag extends AbstractTagObject {
             MapTag flags;
             Optional<FlagMap> fm = e.get(FlagHelper.FLAGMAP);
             if (fm.isPresent()) {
-                flags = new MapTag(fm.get().flags.getInternal());
+                flags = new MapTag(fm.get().getFlags().getInternal());
             }
             else {
                 flags = new MapTag();
@@ -458,6 +449,25 @@ public class ItemTag extends AbstractTagObject {
 
     @Override
     public String toString() {
-        return internal.getType().getId() + "/" + internal.getQuantity() + "/" + DataKeys.getAllKeys(internal).toString();
+        if (cachedString == null) {
+            cachedString = internal.getType().getId() + "/" + internal.getQuantity() + "/" + DataKeys.getAllKeys(internal).toString();
+        }
+        return cachedString;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ItemTag)) {
+            return false;
+        }
+        return internal.equalTo(((ItemTag) other).internal);
+    }
+
+    @Override
+    public int hashCode() {
+        return internal.getType().hashCode() * 31 + internal.getQuantity();
     }
 }
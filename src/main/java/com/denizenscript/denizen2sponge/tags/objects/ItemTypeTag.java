@@ -10,6 +10,7 @@ import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.item.ItemType;
 
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ItemTypeTag extends AbstractTagObject {
 
@@ -27,6 +28,20 @@ public class ItemTypeTag extends AbstractTagObject {
         this.internal = internal;
     }
 
+    // Item types are fixed for the life of the server, so each one gets a single shared tag.
+    private static final ConcurrentHashMap<ItemType, ItemTypeTag> interned = new ConcurrentHashMap<>();
+
+    public static ItemTypeTag getForType(ItemType type) {
+        if (type == null) {
+            return new ItemTypeTag(null);
+        }
+        ItemTypeTag tag = interned.get(type);
+        if (tag == null) {
+            tag = interned.computeIfAbsent(type, ItemTypeTag::new);
+        }
+        return tag;
+    }
+
     public ItemType getInternal() {
         return internal;
     }
@@ -42,7 +57,7 @@ public class ItemTypeTag extends AbstractTagObject {
         // @ReturnType BlockTypeTag
         // @Returns the block type equivalent of this item type.
         // -->
-        handlers.put("block_type", (dat, obj) -> new BlockTypeTag(((ItemTypeTag) obj).internal.getBlock().orElseGet(() -> {
+        handlers.put("block_type", (dat, obj) -> BlockTypeTag.getForType(((ItemTypeTag) obj).internal.getBlock().orElseGet(() -> {
             dat.error.run("This item type does not have a block type equivalent!");
             return null;
         })));
@@ -74,7 +89,7 @@ public class ItemTypeTag extends AbstractTagObject {
             error.run("Invalid ItemTypeTag input!");
             return null;
         }
-        return new ItemTypeTag(itemType);
+        return ItemTypeTag.getForType(itemType);
     }
 
     public static ItemTypeTag getFor(Action<String> error, AbstractTagObject text) {
@@ -101,4 +116,20 @@ public class ItemTypeTag extends AbstractTagObject {
     public String toString() {
         return internal.getId();
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ItemTypeTag)) {
+            return false;
+        }
+        return internal == ((ItemTypeTag) other).internal;
+    }
+
+    @Override
+    public int hashCode() {
+        return internal == null ? 0 : internal.hashCode();
+    }
 }
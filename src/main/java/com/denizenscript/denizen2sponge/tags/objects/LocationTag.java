@@ -6,11 +6,16 @@ import com.denizenscript.denizen2core.tags.objects.*;
 import com.denizenscript.denizen2core.utilities.Action;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2core.utilities.Function2;
+import com.denizenscript.denizen2sponge.utilities.BlockRays;
+import com.denizenscript.denizen2sponge.utilities.BlockScanner;
 import com.denizenscript.denizen2sponge.utilities.DataKeys;
+import com.denizenscript.denizen2sponge.utilities.EntityGrid;
+import com.denizenscript.denizen2sponge.utilities.ParseCache;
 import com.denizenscript.denizen2sponge.utilities.UtilLocation;
 import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
 import org.spongepowered.api.Sponge;
+import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.block.tileentity.Skull;
 import org.spongepowered.api.block.tileentity.TileEntity;
 import org.spongepowered.api.block.tileentity.carrier.TileEntityCarrier;
@@ -20,14 +25,12 @@ import org.spongepowered.api.data.type.SkullTypes;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.profile.property.ProfileProperty;
 import org.spongepowered.api.text.Text;
-import org.spongepowered.api.util.AABB;
-import org.spongepowered.api.util.blockray.BlockRay;
-import org.spongepowered.api.util.blockray.BlockRayHit;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.TeleportHelper;
 import org.spongepowered.api.world.World;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -101,7 +104,7 @@ public class LocationTag extends AbstractTagObject {
         // @Returns the type of the block at the location.
         // @Example "0,1,2,world" .block_type may return "stone".
         // -->
-        handlers.put("block_type", (dat, obj) -> new BlockTypeTag(((LocationTag) obj).internal.toLocation().getBlockType()));
+        handlers.put("block_type", (dat, obj) -> BlockTypeTag.getForType(((LocationTag) obj).internal.toLocation().getBlockType()));
         // <--[tag]
         // @Since 0.3.0
         // @Name LocationTag.block
@@ -231,7 +234,7 @@ public class LocationTag extends AbstractTagObject {
         // @Returns the world of the location.
         // @Example "0,1,2,world" .world returns "world".
         // -->
-        handlers.put("world", (dat, obj) -> new WorldTag(((LocationTag) obj).internal.world));
+        handlers.put("world", (dat, obj) -> WorldTag.getForWorld(((LocationTag) obj).internal.world));
         // <--[tag]
         // @Since 0.3.0
         // @Name LocationTag.add[<LocationTag>]
@@ -353,46 +356,48 @@ public class LocationTag extends AbstractTagObject {
             }
             double range = NumberTag.getFor(dat.checkedError, map.getInternal().get("range")).getInternal();
             UtilLocation loc = ((LocationTag) obj).getInternal();
-            Set<Entity> ents = loc.world.getIntersectingEntities(new AABB(
-                    loc.x - range, loc.y - range, loc.z - range, loc.x + range, loc.y + range, loc.z + range));
-            for (Entity ent : ents) {
-                if ((requiredTypeTag == null || ent.getType().equals(requiredTypeTag.getInternal()))
-                        && LengthSquared(ent.getLocation().sub(loc.toVector3d())) < range * range) {
-                    list.getInternal().add(new EntityTag(ent));
-                }
+            for (Entity ent : EntityGrid.getNearby(loc.world, loc.toVector3d(), range,
+                    requiredTypeTag == null ? null : requiredTypeTag.getInternal(), false)) {
+                list.getInternal().add(new EntityTag(ent));
             }
             return list;
         });
         // <--[tag]
         // @Since 0.3.0
         // @Name LocationTag.nearby_blocks[<MapTag>]
-        // @Updated 2017/01/29
+        // @Updated 2026/10/18
         // @Group World Data
         // @ReturnType ListTag<LocationTag>
         // @Returns a list of block locations of a specified type (or any type if unspecified) near the location.
         // Input is type:<BlockTypeTag>|range:<NumberTag>
+        // Optionally specify types:<ListTag> to accept any of several block types, limit:<IntegerTag> to stop
+        // after that many blocks, and nearest_first:<BooleanTag> to get the closest blocks first.
+        // @Example "0,1,2,world" .nearby_blocks[type:chest|range:16|limit:1|nearest_first:true] returns the closest chest.
         // -->
         handlers.put("nearby_blocks", (dat, obj) -> {
             ListTag list = new ListTag();
             MapTag map = MapTag.getFor(dat.checkedError, dat.getNextModifier());
-            BlockTypeTag requiredTypeTag = null;
+            Set<BlockType> types = null;
+            if (map.getInternal().containsKey("types")) {
+                types = CuboidTag.getBlockTypes(dat.checkedError, map.getInternal().get("types"));
+            }
             if (map.getInternal().containsKey("type")) {
-                requiredTypeTag = BlockTypeTag.getFor(dat.checkedError, map.getInternal().get("type"));
+                if (types == null) {
+                    types = new HashSet<>();
+                }
+                types.add(BlockTypeTag.getFor(dat.checkedError, map.getInternal().get("type")).getInternal());
+            }
+            int limit = 0;
+            if (map.getInternal().containsKey("limit")) {
+                limit = (int) IntegerTag.getFor(dat.checkedError, map.getInternal().get("limit")).getInternal();
             }
+            boolean nearestFirst = map.getInternal().containsKey("nearest_first")
+                    && BooleanTag.getFor(dat.checkedError, map.getInternal().get("nearest_first")).getInternal();
             double range = NumberTag.getFor(dat.checkedError, map.getInternal().get("range")).getInternal();
             UtilLocation loc = ((LocationTag) obj).getInternal();
-            int low = (int) Math.floor(-range);
-            int high = (int) Math.ceil(range);
-            for (int x = low; x < high; x++) {
-                for (int y = low; y < high; y++) {
-                    for (int z = low; z < high; z++) {
-                        Location<World> le = new Location<>(loc.world, loc.x + x, loc.y + y, loc.z + z);
-                        if ((requiredTypeTag == null || le.getBlock().getType().equals(requiredTypeTag.getInternal()))
-                                && LengthSquared(le.sub(loc.toVector3d())) < range * range) {
-                            list.getInternal().add(new LocationTag(le));
-                        }
-                    }
-                }
+            for (Vector3i offset : BlockScanner.findInSphere(loc.world, (int) Math.floor(loc.x), (int) Math.floor(loc.y),
+                    (int) Math.floor(loc.z), range, types, limit, nearestFirst)) {
+                list.getInternal().add(new LocationTag(loc.x + offset.getX(), loc.y + offset.getY(), loc.z + offset.getZ(), loc.world));
             }
             return list;
         });
@@ -536,15 +541,25 @@ public class LocationTag extends AbstractTagObject {
         handlers.put("line_of_sight", (dat, obj) -> {
             Location<World> loc1 = ((LocationTag) obj).internal.toLocation();
             Location<World> loc2 = LocationTag.getFor(dat.checkedError, dat.getNextModifier()).internal.toLocation();
-            Vector3d direction = loc2.getPosition().sub(loc1.getPosition());
-            double length = direction.length();
-            if (length == 0) {
-                return BooleanTag.getForBoolean(true);
+            return BooleanTag.getForBoolean(BlockRays.lineOfSight(loc1, loc2));
+        });
+        // <--[tag]
+        // @Since 0.5.5
+        // @Name LocationTag.line_of_sight_all[<ListTag>]
+        // @Updated 2026/10/18
+        // @Group Block Ray
+        // @ReturnType ListTag<BooleanTag>
+        // @Returns whether each of the specified locations is in the line of sight of this location, in the same order.
+        // @Note Each answer is reused for the rest of the tick when the same pair of locations is checked again.
+        // -->
+        handlers.put("line_of_sight_all", (dat, obj) -> {
+            Location<World> loc1 = ((LocationTag) obj).internal.toLocation();
+            ListTag result = new ListTag();
+            for (AbstractTagObject ato : ListTag.getFor(dat.checkedError, dat.getNextModifier()).getInternal()) {
+                Location<World> loc2 = LocationTag.getFor(dat.checkedError, ato).internal.toLocation();
+                result.getInternal().add(BooleanTag.getForBoolean(BlockRays.lineOfSightCached(loc1, loc2)));
             }
-            BlockRayHit<World> brh = BlockRay.from(loc1).direction(direction).distanceLimit(length)
-                    .stopFilter(BlockRay.continueAfterFilter(BlockRay.onlyAirFilter(), 1))
-                    .build().end().get();
-            return BooleanTag.getForBoolean(brh.getBlockPosition().equals(loc2.getBlockPosition()));
+            return result;
         });
         // <--[tag]
         // @Since 0.4.0
@@ -561,16 +576,27 @@ public class LocationTag extends AbstractTagObject {
         return loc.getX() * loc.getX() + loc.getY() * loc.getY() + loc.getZ() * loc.getZ();
     }
 
+    // Locations saved in flags and script constants come back as the same text many times over.
+    private static final ParseCache<UtilLocation> parsed = new ParseCache<>(1024, loc -> loc.world);
+
     public static LocationTag getFor(Action<String> error, String text) {
+        UtilLocation known = parsed.get(text);
+        if (known != null) {
+            return new LocationTag(known);
+        }
         List<String> split = CoreUtilities.split(text, ',', 4);
         NumberTag x = NumberTag.getFor(error, split.get(0));
         NumberTag y = NumberTag.getFor(error, split.get(1));
         NumberTag z = NumberTag.getFor(error, split.get(2));
         if (split.size() == 3) {
-            return new LocationTag(x.getInternal(), y.getInternal(), z.getInternal());
+            LocationTag result = new LocationTag(x.getInternal(), y.getInternal(), z.getInternal());
+            parsed.put(text, new UtilLocation(result.internal.x, result.internal.y, result.internal.z, null));
+            return result;
         }
         WorldTag world = WorldTag.getFor(error, split.get(3));
-        return new LocationTag(x.getInternal(), y.getInternal(), z.getInternal(), world.getInternal());
+        LocationTag result = new LocationTag(x.getInternal(), y.getInternal(), z.getInternal(), world.getInternal());
+        parsed.put(text, new UtilLocation(result.internal.x, result.internal.y, result.internal.z, result.internal.world));
+        return result;
     }
 
     public static LocationTag getFor(Action<String> error, AbstractTagObject text) {
@@ -595,12 +621,32 @@ public class LocationTag extends AbstractTagObject {
 
     @Override
     public String toString() {
+        // The location is mutable, so remember what the cached string was built from.
+        if (cachedString != null && cachedX == internal.x && cachedY == internal.y && cachedZ == internal.z
+                && cachedWorld == internal.world) {
+            return cachedString;
+        }
         String s = CoreUtilities.doubleToString(internal.x) + ","
                 + CoreUtilities.doubleToString(internal.y) + ","
                 + CoreUtilities.doubleToString(internal.z);
         if (internal.world != null) {
             s += "," + internal.world.getName();
         }
+        cachedX = internal.x;
+        cachedY = internal.y;
+        cachedZ = internal.z;
+        cachedWorld = internal.world;
+        cachedString = s;
         return s;
     }
+
+    private String cachedString = null;
+
+    private double cachedX;
+
+    private double cachedY;
+
+    private double cachedZ;
+
+    private World cachedWorld;
 }
@@ -6,6 +6,7 @@ import com.denizenscript.denizen2core.tags.objects.*;
 import com.denizenscript.denizen2core.utilities.Action;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
 import com.denizenscript.denizen2core.utilities.Function2;
+import com.denizenscript.denizen2sponge.utilities.EntityGrid;
 import com.denizenscript.denizen2sponge.utilities.GameRules;
 import com.denizenscript.denizen2sponge.utilities.Utilities;
 import org.spongepowered.api.Sponge;
@@ -16,6 +17,8 @@ import org.spongepowered.api.world.World;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class WorldTag extends AbstractTagObject {
 
@@ -33,6 +36,31 @@ public class WorldTag extends AbstractTagObject {
         internal = world;
     }
 
+    // One shared tag per loaded world. A world that is unloaded and loaded again is a new object, so gets a new tag.
+    private static final ConcurrentHashMap<UUID, WorldTag> interned = new ConcurrentHashMap<>();
+
+    public static WorldTag getForWorld(World world) {
+        if (world == null) {
+            return new WorldTag(null);
+        }
+        WorldTag tag = interned.get(world.getUniqueId());
+        if (tag == null || tag.internal != world) {
+            tag = new WorldTag(world);
+            interned.put(world.getUniqueId(), tag);
+        }
+        return tag;
+    }
+
+    /**
+     * Drops the shared tag of a world being unloaded, so the tag doesn't keep the old world object in memory.
+     */
+    public static void forgetWorld(World world) {
+        WorldTag tag = interned.get(world.getUniqueId());
+        if (tag != null && tag.internal == world) {
+            interned.remove(world.getUniqueId(), tag);
+        }
+    }
+
     public World getInternal() {
         return internal;
     }
@@ -73,10 +101,8 @@ public class WorldTag extends AbstractTagObject {
             if (dat.hasNextModifier()) {
                 requiredTypeTag = EntityTypeTag.getFor(dat.checkedError, dat.getNextModifier());
             }
-            for (Entity entity : ((WorldTag) obj).internal.getEntities()) {
-                if (requiredTypeTag == null || entity.getType().equals(requiredTypeTag.getInternal())) {
-                    list.getInternal().add(new EntityTag(entity));
-                }
+            for (Entity entity : EntityGrid.getAll(((WorldTag) obj).internal, requiredTypeTag == null ? null : requiredTypeTag.getInternal())) {
+                list.getInternal().add(new EntityTag(entity));
             }
             return list;
         });
@@ -279,7 +305,7 @@ public class WorldTag extends AbstractTagObject {
             error.run("Invalid WorldTag input!");
             return null;
         }
-        return new WorldTag(optWorld.get());
+        return WorldTag.getForWorld(optWorld.get());
     }
 
     public static WorldTag getFor(Action<String> error, AbstractTagObject text) {
@@ -305,4 +331,20 @@ public class WorldTag extends AbstractTagObject {
     public String toString() {
         return internal.getName();
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof WorldTag)) {
+            return false;
+        }
+        return internal == ((WorldTag) other).internal;
+    }
+
+    @Override
+    public int hashCode() {
+        return internal == null ? 0 : internal.hashCode();
+    }
 }
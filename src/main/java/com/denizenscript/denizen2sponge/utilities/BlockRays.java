@@ -0,0 +1,111 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.flowpowered.math.vector.Vector3d;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.entity.living.Living;
+import org.spongepowered.api.util.blockray.BlockRay;
+import org.spongepowered.api.util.blockray.BlockRayHit;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * The block rays behind the line of sight and entity target tags.
+ * The cached variants remember each answer for the rest of the current tick, keyed by the exact source and target,
+ * so a batch that checks the same pair twice (or several scripts checking it in one tick) only casts one ray.
+ */
+public class BlockRays {
+
+    private static final class Key {
+
+        private final World world;
+
+        private final Object source;
+
+        private final double[] values;
+
+        private final int hash;
+
+        public Key(World world, Object source, double... values) {
+            this.world = world;
+            this.source = source;
+            this.values = values;
+            hash = (System.identityHashCode(world) * 31 + Objects.hashCode(source)) * 31 + Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return world == key.world && Objects.equals(source, key.source) && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static int cachedTick = -1;
+
+    private static final HashMap<Key, Boolean> lineOfSight = new HashMap<>();
+
+    private static final HashMap<Key, BlockRayHit<World>> targets = new HashMap<>();
+
+    private static void checkTick() {
+        int tick = Sponge.getServer().getRunningTimeTicks();
+        if (tick != cachedTick) {
+            lineOfSight.clear();
+            targets.clear();
+            cachedTick = tick;
+        }
+    }
+
+    public static boolean lineOfSight(Location<World> from, Location<World> to) {
+        Vector3d direction = to.getPosition().sub(from.getPosition());
+        double length = direction.length();
+        if (length == 0) {
+            return true;
+        }
+        BlockRayHit<World> brh = BlockRay.from(from).direction(direction).distanceLimit(length)
+                .stopFilter(BlockRay.continueAfterFilter(BlockRay.onlyAirFilter(), 1))
+                .build().end().get();
+        return brh.getBlockPosition().equals(to.getBlockPosition());
+    }
+
+    public static synchronized boolean lineOfSightCached(Location<World> from, Location<World> to) {
+        checkTick();
+        Key key = new Key(from.getExtent(), to.getExtent(), from.getX(), from.getY(), from.getZ(), to.getX(), to.getY(), to.getZ());
+        Boolean result = lineOfSight.get(key);
+        if (result == null) {
+            result = lineOfSight(from, to);
+            lineOfSight.put(key, result);
+        }
+        return result;
+    }
+
+    public static BlockRayHit<World> getTarget(Entity ent, double distance) {
+        return BlockRay.from(ent).stopFilter(BlockRay.continueAfterFilter(BlockRay.onlyAirFilter(), 1))
+                .distanceLimit(distance).build().end().get();
+    }
+
+    public static synchronized BlockRayHit<World> getTargetCached(Entity ent, double distance) {
+        checkTick();
+        Vector3d pos = ent.getLocation().getPosition();
+        Vector3d rotation = ent instanceof Living ? ((Living) ent).getHeadRotation() : ent.getRotation();
+        Key key = new Key(ent.getWorld(), ent.getUniqueId(), pos.getX(), pos.getY(), pos.getZ(),
+                rotation.getX(), rotation.getY(), rotation.getZ(), distance);
+        BlockRayHit<World> result = targets.get(key);
+        if (result == null) {
+            result = getTarget(ent, distance);
+            targets.put(key, result);
+        }
+        return result;
+    }
+}
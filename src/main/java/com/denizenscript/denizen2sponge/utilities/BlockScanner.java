@@ -0,0 +1,182 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.world.Chunk;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Walks the blocks in a box one chunk at a time, reading each block type straight from its chunk.
+ * No per-block Location objects are built, and the visitor can stop the walk early.
+ */
+public class BlockScanner {
+
+    public interface Visitor {
+
+        /**
+         * Called for each matching block, in world coordinates. Return false to stop scanning.
+         */
+        boolean visit(int x, int y, int z);
+    }
+
+    /**
+     * Visits every block in the box (inclusive bounds) whose type is in the given set, or every block if the set is null.
+     * Returns false if the visitor stopped the scan early.
+     */
+    public static boolean scan(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                               Set<BlockType> types, Visitor visitor) {
+        int minCX = minX >> 4;
+        int minCZ = minZ >> 4;
+        int maxCX = maxX >> 4;
+        int maxCZ = maxZ >> 4;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                Optional<Chunk> opt = world.getChunk(cx, 0, cz);
+                if (!opt.isPresent()) {
+                    opt = world.loadChunk(cx, 0, cz, true);
+                    if (!opt.isPresent()) {
+                        continue;
+                    }
+                }
+                Chunk chunk = opt.get();
+                Vector3i low = chunk.getBlockMin();
+                Vector3i high = chunk.getBlockMax();
+                int x1 = Math.max(minX, low.getX());
+                int y1 = Math.max(minY, low.getY());
+                int z1 = Math.max(minZ, low.getZ());
+                int x2 = Math.min(maxX, high.getX());
+                int y2 = Math.min(maxY, high.getY());
+                int z2 = Math.min(maxZ, high.getZ());
+                for (int x = x1; x <= x2; x++) {
+                    for (int y = y1; y <= y2; y++) {
+                        for (int z = z1; z <= z2; z++) {
+                            if ((types == null || types.contains(chunk.getBlockType(x, y, z))) && !visitor.visit(x, y, z)) {
+                                return false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the largest whole offset whose square is still below the given limit, or -1 if there is none.
+     */
+    public static int maxOffset(double limitSquared) {
+        if (limitSquared <= 0) {
+            return -1;
+        }
+        int k = (int) Math.ceil(Math.sqrt(limitSquared)) - 1;
+        while ((double) (k + 1) * (k + 1) < limitSquared) {
+            k++;
+        }
+        while (k >= 0 && (double) k * k >= limitSquared) {
+            k--;
+        }
+        return k;
+    }
+
+    public static int lengthSquared(Vector3i offset) {
+        return offset.getX() * offset.getX() + offset.getY() * offset.getY() + offset.getZ() * offset.getZ();
+    }
+
+    private static int axisDistance(int value, int min, int max) {
+        return value < min ? min - value : (value > max ? value - max : 0);
+    }
+
+    /**
+     * Finds blocks (of the given types, or any type if the set is null) strictly within range of the center block,
+     * returning their offsets from the center. Only the part of each row inside the sphere is read, one chunk at a time.
+     * A limit of zero or less means no limit. When nearest first, chunks are read closest first and reading stops
+     * once no remaining chunk can hold anything closer than what was already found.
+     */
+    public static List<Vector3i> findInSphere(World world, int centerX, int centerY, int centerZ, double range,
+                                              Set<BlockType> types, int limit, boolean nearestFirst) {
+        List<Vector3i> found = new ArrayList<>();
+        double rangeSquared = range * range;
+        int reach = maxOffset(rangeSquared);
+        if (reach < 0) {
+            return found;
+        }
+        List<int[]> columns = new ArrayList<>();
+        for (int cx = (centerX - reach) >> 4; cx <= (centerX + reach) >> 4; cx++) {
+            for (int cz = (centerZ - reach) >> 4; cz <= (centerZ + reach) >> 4; cz++) {
+                int dx = axisDistance(centerX, cx << 4, (cx << 4) + 15);
+                int dz = axisDistance(centerZ, cz << 4, (cz << 4) + 15);
+                columns.add(new int[] { cx, cz, dx * dx + dz * dz });
+            }
+        }
+        PriorityQueue<Vector3i> best = null;
+        if (nearestFirst) {
+            columns.sort(Comparator.comparingInt(column -> column[2]));
+            if (limit > 0) {
+                best = new PriorityQueue<>(limit, Comparator.comparingInt(BlockScanner::lengthSquared).reversed());
+            }
+        }
+        for (int[] column : columns) {
+            if (best != null && best.size() >= limit && column[2] >= lengthSquared(best.peek())) {
+                break;
+            }
+            Optional<Chunk> opt = world.getChunk(column[0], 0, column[1]);
+            if (!opt.isPresent()) {
+                opt = world.loadChunk(column[0], 0, column[1], true);
+                if (!opt.isPresent()) {
+                    continue;
+                }
+            }
+            Chunk chunk = opt.get();
+            Vector3i low = chunk.getBlockMin();
+            Vector3i high = chunk.getBlockMax();
+            int x2 = Math.min(centerX + reach, high.getX());
+            for (int x = Math.max(centerX - reach, low.getX()); x <= x2; x++) {
+                int dx = x - centerX;
+                double rowSquared = rangeSquared - dx * dx;
+                int reachY = maxOffset(rowSquared);
+                int y2 = Math.min(centerY + reachY, high.getY());
+                for (int y = Math.max(centerY - reachY, low.getY()); y <= y2; y++) {
+                    int dy = y - centerY;
+                    int reachZ = maxOffset(rowSquared - dy * dy);
+                    if (reachZ < 0) {
+                        continue;
+                    }
+                    int z2 = Math.min(centerZ + reachZ, high.getZ());
+                    for (int z = Math.max(centerZ - reachZ, low.getZ()); z <= z2; z++) {
+                        if (types != null && !types.contains(chunk.getBlockType(x, y, z))) {
+                            continue;
+                        }
+                        Vector3i offset = new Vector3i(dx, dy, z - centerZ);
+                        if (best == null) {
+                            found.add(offset);
+                            if (!nearestFirst && limit > 0 && found.size() >= limit) {
+                                return found;
+                            }
+                        }
+                        else if (best.size() < limit) {
+                            best.add(offset);
+                        }
+                        else if (lengthSquared(offset) < lengthSquared(best.peek())) {
+                            best.poll();
+                            best.add(offset);
+                        }
+                    }
+                }
+            }
+        }
+        if (best != null) {
+            found.addAll(best);
+        }
+        if (nearestFirst) {
+            found.sort(Comparator.comparingInt(BlockScanner::lengthSquared));
+        }
+        return found;
+    }
+}
@@ -0,0 +1,132 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.denizenscript.denizen2sponge.tags.objects.CuboidTag;
+
+import java.util.*;
+
+/**
+ * A per-world grid of cuboids, bucketed by the chunk columns they overlap.
+ * Lookups only test the cuboids sharing a chunk column with the point.
+ */
+public class CuboidIndex {
+
+    // Cuboids spanning more chunk columns than this are tested linearly instead of being bucketed.
+    public static final int MAX_CELLS_PER_CUBOID = 1024;
+
+    private static class WorldCells {
+
+        public final HashMap<Long, List<CuboidTag>> cells = new HashMap<>();
+
+        public final List<CuboidTag> large = new ArrayList<>();
+    }
+
+    private final HashMap<UUID, WorldCells> worlds = new HashMap<>();
+
+    public final List<CuboidTag> cuboids = new ArrayList<>();
+
+    public static long cellKey(int chunkX, int chunkZ) {
+        return (((long) chunkX) << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int chunkCoord(double coord) {
+        return ((int) Math.floor(coord)) >> 4;
+    }
+
+    public void add(CuboidTag cuboid) {
+        cuboids.add(cuboid);
+        UtilCuboid cu = cuboid.getInternal();
+        WorldCells wc = worlds.get(cu.min.world.getUniqueId());
+        if (wc == null) {
+            wc = new WorldCells();
+            worlds.put(cu.min.world.getUniqueId(), wc);
+        }
+        int minX = chunkCoord(cu.min.x);
+        int minZ = chunkCoord(cu.min.z);
+        int maxX = chunkCoord(cu.max.x);
+        int maxZ = chunkCoord(cu.max.z);
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > MAX_CELLS_PER_CUBOID) {
+            wc.large.add(cuboid);
+            return;
+        }
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                long key = cellKey(x, z);
+                List<CuboidTag> cell = wc.cells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<>(2);
+                    wc.cells.put(key, cell);
+                }
+                cell.add(cuboid);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return cuboids.isEmpty();
+    }
+
+    public boolean hasWorld(UUID world) {
+        return worlds.containsKey(world);
+    }
+
+    public boolean contains(UtilLocation location) {
+        if (location.world == null) {
+            return false;
+        }
+        WorldCells wc = worlds.get(location.world.getUniqueId());
+        if (wc == null) {
+            return false;
+        }
+        List<CuboidTag> cell = wc.cells.get(cellKey(chunkCoord(location.x), chunkCoord(location.z)));
+        if (cell != null) {
+            for (int i = 0; i < cell.size(); i++) {
+                if (cell.get(i).contains(location)) {
+                    return true;
+                }
+            }
+        }
+        for (int i = 0; i < wc.large.size(); i++) {
+            if (wc.large.get(i).contains(location)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<CuboidTag> getContaining(UtilLocation location) {
+        List<CuboidTag> result = new ArrayList<>();
+        if (location.world == null) {
+            return result;
+        }
+        WorldCells wc = worlds.get(location.world.getUniqueId());
+        if (wc == null) {
+            return result;
+        }
+        List<CuboidTag> cell = wc.cells.get(cellKey(chunkCoord(location.x), chunkCoord(location.z)));
+        if (cell != null) {
+            for (CuboidTag cuboid : cell) {
+                if (cuboid.contains(location)) {
+                    result.add(cuboid);
+                }
+            }
+        }
+        for (CuboidTag cuboid : wc.large) {
+            if (cuboid.contains(location)) {
+                result.add(cuboid);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cuboids that contain the 'to' location but not the 'from' location.
+     * Swapping the arguments gives the cuboids that were left instead.
+     */
+    public List<CuboidTag> getEntered(UtilLocation from, UtilLocation to) {
+        List<CuboidTag> result = getContaining(to);
+        if (!result.isEmpty()) {
+            result.removeAll(getContaining(from));
+        }
+        return result;
+    }
+}
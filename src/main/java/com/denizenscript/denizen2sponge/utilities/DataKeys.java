@@ -4,123 +4,125 @@ import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.*;
 import com.denizenscript.denizen2core.utilities.Action;
 import com.denizenscript.denizen2core.utilities.CoreUtilities;
-import com.denizenscript.denizen2core.utilities.ErrorInducedException;
 import com.denizenscript.denizen2core.utilities.debugging.Debug;
-import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.denizenscript.denizen2sponge.tags.objects.FormattedTextTag;
 import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
+import com.denizenscript.denizen2sponge.utilities.flags.EntityFlags;
 import com.denizenscript.denizen2sponge.utilities.flags.FlagHelper;
 import com.denizenscript.denizen2sponge.utilities.flags.FlagMap;
 import com.denizenscript.denizen2sponge.utilities.flags.FlagMapDataImpl;
 import com.flowpowered.math.vector.Vector3d;
-import com.google.common.reflect.TypeToken;
 import org.spongepowered.api.CatalogType;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.data.DataHolder;
 import org.spongepowered.api.data.ImmutableDataHolder;
 import org.spongepowered.api.data.key.Key;
-import org.spongepowered.api.data.value.BaseValue;
+import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.item.inventory.ItemStack;
 import org.spongepowered.api.text.Text;
+import org.spongepowered.api.world.Location;
 
 import java.util.*;
 
 public class DataKeys {
 
-    private static Collection<Key> keys;
-    private static int lastUpdate;
+    // The key registry is frozen once the server is running, so the keys are indexed on first use
+    // and only rebuilt when scripts reload (in case an addon registered more keys since).
+
+    private static List<Key> keys;
+
+    private static HashMap<String, Key> keysByName;
+
+    // Keys that a holder of a given type (item type, entity type, block type, or else class) supports.
+    private static final HashMap<Object, List<Key>> supportedKeys = new HashMap<>();
+
+    // Keys whose support depends on data attached to the specific holder, not its type, so are always checked.
+    private static List<Key> dynamicKeys;
 
     private static void updateKeys() {
-        int currentTime = Sponge.getServer().getRunningTimeTicks();
-        if (currentTime != lastUpdate) {
-            lastUpdate = currentTime;
-            keys = new HashSet<>(Sponge.getRegistry().getAllOf(Key.class));
-            keys.add(FlagHelper.FLAGMAP); // TODO: Make this not needed! GetAllOf shouldn't require manual key registration!
+        if (keys != null) {
+            return;
+        }
+        Set<Key> allKeys = new LinkedHashSet<>(Sponge.getRegistry().getAllOf(Key.class));
+        allKeys.add(FlagHelper.FLAGMAP); // TODO: Make this not needed! GetAllOf shouldn't require manual key registration!
+        HashMap<String, Key> byName = new HashMap<>();
+        for (Key key : allKeys) {
+            byName.put(CoreUtilities.toLowerCase(key.getId()), key);
         }
+        for (Key key : allKeys) {
+            byName.putIfAbsent(CoreUtilities.toLowerCase(CoreUtilities.after(key.getId(), ":")), key);
+        }
+        keysByName = byName;
+        dynamicKeys = Collections.singletonList(FlagHelper.FLAGMAP);
+        keys = new ArrayList<>(allKeys);
+        keys.removeAll(dynamicKeys);
+    }
+
+    public static void clearCache() {
+        keys = null;
+        keysByName = null;
+        supportedKeys.clear();
+        codecs.clear();
     }
 
     public static Key getKeyForName(String name) {
         updateKeys();
-        name = CoreUtilities.toLowerCase(name);
-        for (Key key : keys) {
-            if (name.equals(CoreUtilities.after(key.getId(), ":"))
-                    || name.equals(key.getId())) {
-                return key;
-            }
+        return keysByName.get(CoreUtilities.toLowerCase(name));
+    }
+
+    private static Object getHolderType(DataHolder dataHolder) {
+        if (dataHolder instanceof ItemStack) {
+            return ((ItemStack) dataHolder).getType();
         }
-        return null;
+        if (dataHolder instanceof Entity) {
+            return ((Entity) dataHolder).getType();
+        }
+        if (dataHolder instanceof Location) {
+            return ((Location) dataHolder).getBlockType();
+        }
+        return dataHolder.getClass();
     }
 
-    public static MapTag getAllKeys(DataHolder dataHolder) {
-        MapTag temp = new MapTag();
+    public static List<Key> getSupportedKeys(DataHolder dataHolder) {
         updateKeys();
-        for (Key key : keys) {
-            if (!dataHolder.supports(key)) {
-                continue;
-            }
-            if (dataHolder.getOrNull(key) == null) {
-                // Nope nope nope!
-                continue;
-            }
-            AbstractTagObject ato = getValue(dataHolder, key, (s) -> {
-                Debug.error("Failed to read key '" + key.getId() + "': " + s);
-            });
-            if (ato != null && !(ato instanceof NullTag)) {
-                temp.getInternal().put(key.getId(), ato);
+        Object type = getHolderType(dataHolder);
+        List<Key> supported = supportedKeys.get(type);
+        if (supported == null) {
+            supported = new ArrayList<>();
+            for (Key key : keys) {
+                if (dataHolder.supports(key)) {
+                    supported.add(key);
+                }
             }
+            supportedKeys.put(type, supported);
         }
-        return temp;
+        return supported;
     }
 
-    public static Object convertObjectUsing(Action<String> error, TypeToken type, AbstractTagObject value) {
-        if (List.class.isAssignableFrom(type.getRawType())) {
-            TypeToken st = type.resolveType(List.class.getTypeParameters()[0]);
-            ArrayList toRet = new ArrayList();
-            for (AbstractTagObject obj : ListTag.getFor(error, value).getInternal()) {
-                toRet.add(convertObjectUsing(error, st, obj));
-            }
-            return toRet;
-        }
-        else if (type.isSubtypeOf(Boolean.class)) {
-            return BooleanTag.getFor(error, value).getInternal();
-        }
-        else if (type.isSubtypeOf(CatalogType.class)) {
-            String val = value.toString();
-            Optional optCatalogType = Sponge.getRegistry().getType(type.getRawType(), val);
-            if (!optCatalogType.isPresent()) {
-                error.run("Invalid value '" + val + "' requested for enumeration '" + type.getRawType().getCanonicalName() + "'!");
-                return null;
-            }
-            return optCatalogType.get();
-        }
-        else if (type.isSubtypeOf(Double.class)) {
-            return NumberTag.getFor(error, value).getInternal();
-        }
-        else if (type.isSubtypeOf(Enum.class)) {
-            return Enum.valueOf(type.getRawType(), value.toString().toUpperCase());
-        }
-        else if (type.isSubtypeOf(Integer.class)) {
-            return (int) IntegerTag.getFor(error, value).getInternal();
-        }
-        else if (type.isSubtypeOf(Vector3d.class)) {
-            return LocationTag.getFor(error, value).getInternal().toVector3d();
+    public static MapTag getAllKeys(DataHolder dataHolder) {
+        MapTag temp = new MapTag();
+        List<Key> supported = getSupportedKeys(dataHolder);
+        for (Key key : supported) {
+            addKey(temp, dataHolder, key);
         }
-        else if (type.isSubtypeOf(Text.class)) {
-            if (value instanceof FormattedTextTag) {
-                return ((FormattedTextTag) value).getInternal();
-            }
-            else {
-                return Denizen2Sponge.parseColor(value.toString());
+        for (Key key : dynamicKeys) {
+            if (dataHolder.supports(key)) {
+                addKey(temp, dataHolder, key);
             }
         }
-        else if (type.isSubtypeOf(UUID.class)) {
-            return UUID.fromString(value.toString());
+        return temp;
+    }
+
+    private static void addKey(MapTag temp, DataHolder dataHolder, Key key) {
+        if (dataHolder.getOrNull(key) == null) {
+            // Nope nope nope!
+            return;
         }
-        else if (type.isSubtypeOf(FlagMap.class)) {
-            return new FlagMap(MapTag.getFor(error, value));
-        }
-        else {
-            error.run("The value type '" + type.getRawType().getCanonicalName() + "' is not supported yet, cannot apply!");
-            return null;
+        AbstractTagObject ato = getValue(dataHolder, key, (s) -> {
+            Debug.error("Failed to read key '" + key.getId() + "': " + s);
+        });
+        if (ato != null && !(ato instanceof NullTag)) {
+            temp.getInternal().put(key.getId(), ato);
         }
     }
 
@@ -160,59 +162,39 @@ public class DataKeys {
             return new TextTag(input.toString());
         }
         if (input instanceof FlagMap) {
-            return new MapTag(((FlagMap) input).flags.getInternal());
+            return new MapTag(((FlagMap) input).getFlags().getInternal());
         }
         error.run("The value type '" + input.getClass().getName() + "' is not supported yet, cannot taggify!");
         return NullTag.NULL;
     }
 
-    private static ArrayList EMPTY_LIST = new ArrayList();
+    private static final HashMap<Key, KeyCodec> codecs = new HashMap<>();
+
+    public static KeyCodec getCodec(Key key) {
+        KeyCodec codec = codecs.get(key);
+        if (codec == null) {
+            codec = new KeyCodec(key.getElementToken());
+            codecs.put(key, codec);
+        }
+        return codec;
+    }
 
     // TODO: Rotation support!
 
     public static AbstractTagObject getValue(DataHolder dataHolder, Key key, Action<String> error) {
-        Class clazz = key.getElementToken().getRawType();
+        KeyCodec codec = getCodec(key);
+        if (codec.isFlagMap && dataHolder instanceof Entity) {
+            // Entity flags may have unsaved changes held in memory.
+            return new MapTag(EntityFlags.getFlags((Entity) dataHolder).getInternal());
+        }
         if (!dataHolder.supports(key)) {
-            if (FlagMap.class.isAssignableFrom(clazz)) {
+            if (codec.isFlagMap) {
                 return new MapTag();
             }
             error.run("This data holder does not support the key '" + key.getId() + "'!");
             return NullTag.NULL;
         }
-        if (List.class.isAssignableFrom(clazz)) {
-            return taggifyObject(error, dataHolder.getOrElse(key, EMPTY_LIST));
-        }
-        if (Boolean.class.isAssignableFrom(clazz)) {
-            return BooleanTag.getForBoolean(dataHolder.getOrElse((Key<BaseValue<Boolean>>) key, false));
-        }
-        else if (CatalogType.class.isAssignableFrom(clazz)) {
-            return new TextTag(dataHolder.getValue((Key<BaseValue<CatalogType>>) key).orElseThrow(() -> new ErrorInducedException("Value not present!")).get().getId());
-        }
-        else if (Double.class.isAssignableFrom(clazz)) {
-            return new NumberTag(dataHolder.getOrElse((Key<BaseValue<Double>>) key, 0.0));
-        }
-        else if (Enum.class.isAssignableFrom(clazz)) {
-            return new TextTag(dataHolder.getValue((Key<BaseValue<Enum>>) key).orElseThrow(() -> new ErrorInducedException("Empty enum value!")).get().name());
-        }
-        else if (Integer.class.isAssignableFrom(clazz)) {
-            return new IntegerTag(dataHolder.getOrElse((Key<BaseValue<Integer>>) key, 0));
-        }
-        else if (Vector3d.class.isAssignableFrom(clazz)) {
-            return new LocationTag(dataHolder.getOrElse((Key<BaseValue<Vector3d>>) key, new Vector3d(0, 0, 0)));
-        }
-        else if (Text.class.isAssignableFrom(clazz)) {
-            return new FormattedTextTag(dataHolder.getOrElse((Key<BaseValue<Text>>) key, Text.EMPTY));
-        }
-        else if (UUID.class.isAssignableFrom(clazz)) {
-            return new TextTag(dataHolder.getValue((Key<BaseValue<UUID>>) key).orElseThrow(() -> new ErrorInducedException("Empty UUID value!")).get().toString());
-        }
-        else if (FlagMap.class.isAssignableFrom(clazz)) {
-            return new MapTag(dataHolder.getOrElse((Key<BaseValue<FlagMap>>) key, new FlagMap(new MapTag())).flags.getInternal());
-        }
-        else {
-            error.run("The value type '" + clazz.getName() + "' is not supported yet, cannot get its value!");
-            return NullTag.NULL;
-        }
+        return codec.reader.read(dataHolder, key, error);
     }
 
     public static void tryApply(DataHolder entity, Key key, AbstractTagObject value, Action<String> error) {
@@ -220,8 +202,9 @@ public class DataKeys {
             error.run("The given key is null - an invalid key name may have been given.");
             return;
         }
+        KeyCodec codec = getCodec(key);
         if (!entity.supports(key)) {
-            if (key.getElementToken().isSubtypeOf(FlagMap.class)) {
+            if (codec.isFlagMap) {
                 entity.offer(new FlagMapDataImpl(new FlagMap(new MapTag())));
             }
             else {
@@ -229,12 +212,15 @@ public class DataKeys {
                 return;
             }
         }
-        Object offerMe = convertObjectUsing(error, key.getElementToken(), value);
+        Object offerMe = codec.converter.convert(error, value);
         if (offerMe == null) {
             error.run("Failed to apply key with null value!");
             return;
         }
-        if (offerMe instanceof FlagMap) {
+        if (offerMe instanceof FlagMap && entity instanceof Entity) {
+            EntityFlags.setFlags((Entity) entity, ((FlagMap) offerMe).getFlags());
+        }
+        else if (offerMe instanceof FlagMap) {
             entity.offer(new FlagMapDataImpl((FlagMap) offerMe));
         }
         else {
@@ -243,9 +229,9 @@ public class DataKeys {
     }
 
     public static ImmutableDataHolder with(ImmutableDataHolder entity, Key key, AbstractTagObject value, Action<String> error) {
-        Class clazz = key.getElementToken().getRawType();
+        KeyCodec codec = getCodec(key);
         if (!entity.supports(key)) {
-            if (key.getElementToken().isSubtypeOf(FlagMap.class)) {
+            if (codec.isFlagMap) {
                 entity = (ImmutableDataHolder) entity.with(new FlagMapDataImpl(new FlagMap(new MapTag()))).get();
             }
             else {
@@ -253,7 +239,7 @@ public class DataKeys {
                 return null;
             }
         }
-        Object offerMe = convertObjectUsing(error, key.getElementToken(), value);
+        Object offerMe = codec.converter.convert(error, value);
         if (offerMe == null) {
             error.run("Failed to apply key with null value!");
             return null;
@@ -0,0 +1,365 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.flowpowered.math.imaginary.Quaterniond;
+import com.flowpowered.math.vector.Vector3d;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.data.property.entity.EyeLocationProperty;
+import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.entity.EntityType;
+import org.spongepowered.api.entity.living.Living;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.entity.MoveEntityEvent;
+import org.spongepowered.api.util.AABB;
+import org.spongepowered.api.world.World;
+
+import java.util.*;
+
+/**
+ * A per-world spatial hash of loaded entities, bucketed by the chunk column they stand in.
+ * Entities are added and removed alongside the {@link EntityIndex} and moved on movement events.
+ * Nearby, box and ray queries only look at the cells they overlap, and re-bucket any entity found there
+ * that has moved without an event (such as being pushed). A small slice of entities is also re-checked each tick,
+ * so those that drift out of their cell unqueried are eventually found again.
+ */
+public class EntityGrid {
+
+    private static class Tracked {
+
+        public final Entity entity;
+
+        public World world;
+
+        public long cell;
+
+        public Tracked(Entity entity) {
+            this.entity = entity;
+        }
+    }
+
+    private static class WorldCells {
+
+        public final HashMap<Long, ArrayList<Tracked>> cells = new HashMap<>();
+
+        public final HashMap<EntityType, Set<Tracked>> byType = new HashMap<>();
+
+        public final Set<Tracked> all = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static final HashMap<UUID, Tracked> tracked = new HashMap<>();
+
+    private static final HashMap<UUID, WorldCells> worlds = new HashMap<>();
+
+    // Tracked entries in the order the sweep re-checks them. Entries replaced or removed are dropped as they come up.
+    private static final ArrayDeque<Tracked> sweepQueue = new ArrayDeque<>();
+
+    private static final int SWEEP_PER_TICK = 64;
+
+    public static void register() {
+        Sponge.getEventManager().registerListeners(Denizen2Sponge.instance, new EntityGrid());
+        Sponge.getScheduler().createTaskBuilder().intervalTicks(1).execute(EntityGrid::sweep).submit(Denizen2Sponge.instance);
+    }
+
+    public static synchronized void add(Entity ent) {
+        Tracked t = tracked.get(ent.getUniqueId());
+        if (t != null && t.entity != ent) {
+            unlink(t);
+            tracked.remove(ent.getUniqueId());
+            t = null;
+        }
+        if (t == null) {
+            t = new Tracked(ent);
+            tracked.put(ent.getUniqueId(), t);
+            link(t, ent.getWorld(), ent.getLocation().getPosition());
+            sweepQueue.add(t);
+            return;
+        }
+        update(t);
+    }
+
+    public static synchronized void remove(Entity ent) {
+        Tracked t = tracked.get(ent.getUniqueId());
+        if (t != null && t.entity == ent) {
+            unlink(t);
+            tracked.remove(ent.getUniqueId());
+        }
+    }
+
+    /**
+     * Re-checks the next few tracked entities, so the cost per tick stays bounded however many are loaded.
+     */
+    public static synchronized void sweep() {
+        int count = Math.min(SWEEP_PER_TICK, sweepQueue.size());
+        for (int i = 0; i < count; i++) {
+            Tracked t = sweepQueue.poll();
+            if (tracked.get(t.entity.getUniqueId()) != t) {
+                continue;
+            }
+            if (settle(t)) {
+                sweepQueue.add(t);
+            }
+        }
+    }
+
+    /**
+     * Brings the entry in line with its entity, dropping it if the entity is gone.
+     * Returns whether it is still tracked.
+     */
+    private static boolean settle(Tracked t) {
+        if (t.entity.isRemoved()) {
+            unlink(t);
+            if (tracked.get(t.entity.getUniqueId()) == t) {
+                tracked.remove(t.entity.getUniqueId());
+            }
+            return false;
+        }
+        update(t);
+        return true;
+    }
+
+    /**
+     * Adds the cell's entries (optionally only of one type) that are still live in the world to found.
+     * Entries that are gone, or whose entity is no longer in this cell, are added to stale;
+     * ones that moved within the world are still found, as queries check the real position anyway.
+     */
+    private static void scan(WorldCells wc, long key, World world, EntityType type, List<Tracked> found, List<Tracked> stale) {
+        ArrayList<Tracked> cell = wc.cells.get(key);
+        if (cell == null) {
+            return;
+        }
+        for (int i = 0; i < cell.size(); i++) {
+            Tracked t = cell.get(i);
+            if (t.entity.isRemoved() || t.entity.getWorld() != world) {
+                stale.add(t);
+                continue;
+            }
+            if (cellFor(t.entity.getLocation().getPosition()) != t.cell) {
+                stale.add(t);
+            }
+            if (type == null || t.entity.getType() == type) {
+                found.add(t);
+            }
+        }
+    }
+
+    private static void settleAll(List<Tracked> stale) {
+        for (Tracked t : stale) {
+            settle(t);
+        }
+    }
+
+    private static void update(Tracked t) {
+        World world = t.entity.getWorld();
+        Vector3d pos = t.entity.getLocation().getPosition();
+        if (world == t.world && cellFor(pos) == t.cell) {
+            return;
+        }
+        unlink(t);
+        link(t, world, pos);
+    }
+
+    private static long cellFor(Vector3d pos) {
+        return CuboidIndex.cellKey(CuboidIndex.chunkCoord(pos.getX()), CuboidIndex.chunkCoord(pos.getZ()));
+    }
+
+    private static void link(Tracked t, World world, Vector3d pos) {
+        t.world = world;
+        t.cell = cellFor(pos);
+        WorldCells wc = worlds.get(world.getUniqueId());
+        if (wc == null) {
+            wc = new WorldCells();
+            worlds.put(world.getUniqueId(), wc);
+        }
+        ArrayList<Tracked> cell = wc.cells.get(t.cell);
+        if (cell == null) {
+            cell = new ArrayList<>(4);
+            wc.cells.put(t.cell, cell);
+        }
+        cell.add(t);
+        Set<Tracked> ofType = wc.byType.get(t.entity.getType());
+        if (ofType == null) {
+            ofType = Collections.newSetFromMap(new IdentityHashMap<>());
+            wc.byType.put(t.entity.getType(), ofType);
+        }
+        ofType.add(t);
+        wc.all.add(t);
+    }
+
+    private static void unlink(Tracked t) {
+        if (t.world == null) {
+            return;
+        }
+        WorldCells wc = worlds.get(t.world.getUniqueId());
+        t.world = null;
+        if (wc == null) {
+            return;
+        }
+        ArrayList<Tracked> cell = wc.cells.get(t.cell);
+        if (cell != null) {
+            cell.remove(t);
+            if (cell.isEmpty()) {
+                wc.cells.remove(t.cell);
+            }
+        }
+        Set<Tracked> ofType = wc.byType.get(t.entity.getType());
+        if (ofType != null) {
+            ofType.remove(t);
+        }
+        wc.all.remove(t);
+    }
+
+    private static boolean isLive(Tracked t, World world) {
+        return !t.entity.isRemoved() && t.entity.getWorld() == world;
+    }
+
+    /**
+     * Returns all tracked entities in the world, optionally only those of one type.
+     */
+    public static synchronized List<Entity> getAll(World world, EntityType type) {
+        List<Entity> result = new ArrayList<>();
+        WorldCells wc = worlds.get(world.getUniqueId());
+        if (wc == null) {
+            return result;
+        }
+        Set<Tracked> source = type == null ? wc.all : wc.byType.get(type);
+        if (source == null) {
+            return result;
+        }
+        for (Tracked t : source) {
+            if (isLive(t, world)) {
+                result.add(t.entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns entities (optionally of one type) whose position is within range of the center.
+     * Entities exactly at the range are only included if inclusive is set.
+     */
+    public static synchronized List<Entity> getNearby(World world, Vector3d center, double range, EntityType type, boolean inclusive) {
+        List<Entity> result = new ArrayList<>();
+        WorldCells wc = worlds.get(world.getUniqueId());
+        if (wc == null) {
+            return result;
+        }
+        double rangeSquared = range * range;
+        int minX = CuboidIndex.chunkCoord(center.getX() - range);
+        int maxX = CuboidIndex.chunkCoord(center.getX() + range);
+        int minZ = CuboidIndex.chunkCoord(center.getZ() - range);
+        int maxZ = CuboidIndex.chunkCoord(center.getZ() + range);
+        List<Tracked> found = new ArrayList<>();
+        List<Tracked> stale = new ArrayList<>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                scan(wc, CuboidIndex.cellKey(x, z), world, type, found, stale);
+            }
+        }
+        settleAll(stale);
+        for (Tracked t : found) {
+            double distSquared = t.entity.getLocation().getPosition().distanceSquared(center);
+            if (inclusive ? distSquared <= rangeSquared : distSquared < rangeSquared) {
+                result.add(t.entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns entities (optionally of one type) whose position is inside the box.
+     */
+    public static synchronized List<Entity> getInBox(World world, AABB box, EntityType type) {
+        List<Entity> result = new ArrayList<>();
+        WorldCells wc = worlds.get(world.getUniqueId());
+        if (wc == null) {
+            return result;
+        }
+        int minX = CuboidIndex.chunkCoord(box.getMin().getX());
+        int maxX = CuboidIndex.chunkCoord(box.getMax().getX());
+        int minZ = CuboidIndex.chunkCoord(box.getMin().getZ());
+        int maxZ = CuboidIndex.chunkCoord(box.getMax().getZ());
+        List<Tracked> found = new ArrayList<>();
+        List<Tracked> stale = new ArrayList<>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                scan(wc, CuboidIndex.cellKey(x, z), world, type, found, stale);
+            }
+        }
+        settleAll(stale);
+        for (Tracked t : found) {
+            if (box.contains(t.entity.getLocation().getPosition())) {
+                result.add(t.entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns entities (optionally of one type) whose bounding box is hit by the ray within the given distance.
+     * Cells next to the ray are checked too, as an entity's box can reach past the column it stands in.
+     */
+    public static synchronized List<Entity> getAlongRay(World world, Vector3d start, Vector3d direction, double distance, EntityType type) {
+        List<Entity> result = new ArrayList<>();
+        WorldCells wc = worlds.get(world.getUniqueId());
+        if (wc == null) {
+            return result;
+        }
+        Vector3d dir = direction.normalize();
+        Vector3d end = start.add(dir.mul(distance));
+        double distanceSquared = distance * distance;
+        int minX = CuboidIndex.chunkCoord(Math.min(start.getX(), end.getX())) - 1;
+        int maxX = CuboidIndex.chunkCoord(Math.max(start.getX(), end.getX())) + 1;
+        int minZ = CuboidIndex.chunkCoord(Math.min(start.getZ(), end.getZ())) - 1;
+        int maxZ = CuboidIndex.chunkCoord(Math.max(start.getZ(), end.getZ())) + 1;
+        List<Tracked> found = new ArrayList<>();
+        List<Tracked> stale = new ArrayList<>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                scan(wc, CuboidIndex.cellKey(x, z), world, type, found, stale);
+            }
+        }
+        settleAll(stale);
+        for (Tracked t : found) {
+            Optional<AABB> bounds = t.entity.getBoundingBox();
+            if (!bounds.isPresent()) {
+                continue;
+            }
+            Optional<Vector3d> hit = bounds.get().intersects(start, dir).map(tup -> tup.getFirst());
+            if (hit.isPresent() && hit.get().distanceSquared(start) <= distanceSquared) {
+                result.add(t.entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns entities (optionally of one type) in the line of sight of the looker, the same way Sponge aims it:
+     * from the eye location, along the head rotation for living entities.
+     */
+    public static List<Entity> getInLineOfSight(Entity looker, double distance, EntityType type) {
+        Vector3d rotation = looker instanceof Living ? ((Living) looker).getHeadRotation() : looker.getRotation();
+        Vector3d direction = Quaterniond.fromAxesAnglesDeg(rotation.getX(), -rotation.getY(), rotation.getZ()).getDirection();
+        Vector3d start = looker.getProperty(EyeLocationProperty.class).map(EyeLocationProperty::getValue)
+                .orElse(looker.getLocation().getPosition());
+        return getAlongRay(looker.getWorld(), start, direction, distance, type);
+    }
+
+    @Listener(order = Order.POST)
+    public void onEntityMoves(MoveEntityEvent evt) {
+        Entity ent = evt.getTargetEntity();
+        synchronized (EntityGrid.class) {
+            Tracked t = tracked.get(ent.getUniqueId());
+            if (t == null || t.entity != ent) {
+                return;
+            }
+            Vector3d pos = evt.getToTransform().getPosition();
+            World world = evt.getToTransform().getExtent();
+            if (world == t.world && cellFor(pos) == t.cell) {
+                return;
+            }
+            unlink(t);
+            link(t, world, pos);
+        }
+    }
+}
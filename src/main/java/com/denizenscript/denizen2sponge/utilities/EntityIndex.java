@@ -0,0 +1,154 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagExpiry;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagIndex;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.entity.DestructEntityEvent;
+import org.spongepowered.api.event.entity.SpawnEntityEvent;
+import org.spongepowered.api.event.entity.living.humanoid.player.RespawnPlayerEvent;
+import org.spongepowered.api.event.network.ClientConnectionEvent;
+import org.spongepowered.api.event.world.LoadWorldEvent;
+import org.spongepowered.api.event.world.UnloadWorldEvent;
+import org.spongepowered.api.event.world.chunk.LoadChunkEvent;
+import org.spongepowered.api.event.world.chunk.UnloadChunkEvent;
+import org.spongepowered.api.world.World;
+
+import java.lang.ref.WeakReference;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks loaded entities by UUID, so they can be found without asking every world in turn.
+ * Kept up to date from spawn, destroy, chunk and world load/unload, and connection events.
+ * Also feeds the {@link EntityGrid} and {@link FlagIndex} with the same additions and removals.
+ */
+public class EntityIndex {
+
+    // How long an entity that was unloaded or couldn't be found is assumed to stay that way.
+    public static final long MISS_CACHE_MILLIS = 5000;
+
+    private static final ConcurrentHashMap<UUID, WeakReference<Entity>> entities = new ConcurrentHashMap<>();
+
+    private static final ConcurrentHashMap<UUID, Long> misses = new ConcurrentHashMap<>();
+
+    public static void register() {
+        Sponge.getEventManager().registerListeners(Denizen2Sponge.instance, new EntityIndex());
+        for (World world : Sponge.getServer().getWorlds()) {
+            addAll(world.getEntities());
+        }
+    }
+
+    public static Optional<Entity> getEntity(UUID id) {
+        WeakReference<Entity> ref = entities.get(id);
+        if (ref != null) {
+            Entity ent = ref.get();
+            if (ent != null && !ent.isRemoved()) {
+                return Optional.of(ent);
+            }
+            entities.remove(id, ref);
+        }
+        Long missed = misses.get(id);
+        if (missed != null) {
+            if (System.currentTimeMillis() - missed < MISS_CACHE_MILLIS) {
+                return Optional.empty();
+            }
+            misses.remove(id, missed);
+        }
+        // Not tracked (or tracked object went stale, such as after a world change), so fall back to a full search.
+        for (World world : Sponge.getServer().getWorlds()) {
+            Optional<Entity> e = world.getEntity(id);
+            if (e.isPresent()) {
+                add(e.get());
+                return e;
+            }
+        }
+        misses.put(id, System.currentTimeMillis());
+        return Optional.empty();
+    }
+
+    public static void add(Entity ent) {
+        entities.put(ent.getUniqueId(), new WeakReference<>(ent));
+        misses.remove(ent.getUniqueId());
+        EntityGrid.add(ent);
+        FlagIndex.indexEntity(ent);
+    }
+
+    public static void remove(Entity ent) {
+        forget(ent);
+        misses.put(ent.getUniqueId(), System.currentTimeMillis());
+    }
+
+    /**
+     * Drops the entity without remembering it as missing, for when the same UUID may come straight back,
+     * such as a player who died and is about to respawn.
+     */
+    public static void forget(Entity ent) {
+        entities.remove(ent.getUniqueId());
+        EntityGrid.remove(ent);
+        FlagIndex.removeHolder(ent.getUniqueId());
+    }
+
+    public static void addAll(Iterable<? extends Entity> ents) {
+        for (Entity ent : ents) {
+            add(ent);
+        }
+    }
+
+    public static void removeAll(Iterable<? extends Entity> ents) {
+        for (Entity ent : ents) {
+            remove(ent);
+        }
+    }
+
+    @Listener(order = Order.POST)
+    public void onEntitySpawns(SpawnEntityEvent evt) {
+        addAll(evt.getEntities());
+    }
+
+    @Listener(order = Order.POST)
+    public void onEntityDestroyed(DestructEntityEvent evt) {
+        forget(evt.getTargetEntity());
+        FlagExpiry.forget(evt.getTargetEntity().getUniqueId());
+    }
+
+    @Listener(order = Order.POST)
+    public void onChunkLoads(LoadChunkEvent evt) {
+        addAll(evt.getTargetChunk().getEntities());
+    }
+
+    @Listener(order = Order.POST)
+    public void onChunkUnloads(UnloadChunkEvent evt) {
+        removeAll(evt.getTargetChunk().getEntities());
+    }
+
+    @Listener(order = Order.POST)
+    public void onWorldLoads(LoadWorldEvent evt) {
+        addAll(evt.getTargetWorld().getEntities());
+    }
+
+    @Listener(order = Order.POST)
+    public void onWorldUnloads(UnloadWorldEvent evt) {
+        removeAll(evt.getTargetWorld().getEntities());
+    }
+
+    @Listener(order = Order.POST)
+    public void onPlayerJoins(ClientConnectionEvent.Join evt) {
+        add(evt.getTargetEntity());
+    }
+
+    @Listener(order = Order.POST)
+    public void onPlayerRespawns(RespawnPlayerEvent evt) {
+        // Dying fires a destroy event for the player, but they come back as a new entity without spawning.
+        add(evt.getTargetEntity());
+    }
+
+    @Listener(order = Order.POST)
+    public void onPlayerQuits(ClientConnectionEvent.Disconnect evt) {
+        remove(evt.getTargetEntity());
+    }
+}
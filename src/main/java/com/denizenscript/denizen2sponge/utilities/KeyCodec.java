@@ -0,0 +1,194 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.denizenscript.denizen2core.tags.AbstractTagObject;
+import com.denizenscript.denizen2core.tags.objects.*;
+import com.denizenscript.denizen2core.utilities.Action;
+import com.denizenscript.denizen2core.utilities.ErrorInducedException;
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.denizenscript.denizen2sponge.tags.objects.FormattedTextTag;
+import com.denizenscript.denizen2sponge.tags.objects.LocationTag;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagMap;
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.reflect.TypeToken;
+import org.spongepowered.api.CatalogType;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.data.DataHolder;
+import org.spongepowered.api.data.key.Key;
+import org.spongepowered.api.data.value.BaseValue;
+import org.spongepowered.api.text.Text;
+
+import java.util.*;
+
+/**
+ * Reads and writes the values of a data key, with the handling for its value type picked once up front
+ * rather than on every access.
+ */
+public class KeyCodec {
+
+    public interface Reader {
+
+        AbstractTagObject read(DataHolder dataHolder, Key key, Action<String> error);
+    }
+
+    public interface Converter {
+
+        Object convert(Action<String> error, AbstractTagObject value);
+    }
+
+    public interface Taggifier {
+
+        AbstractTagObject taggify(Action<String> error, Object value);
+    }
+
+    private static final ArrayList EMPTY_LIST = new ArrayList();
+
+    public final Class rawType;
+
+    public final boolean isFlagMap;
+
+    public final Reader reader;
+
+    public final Converter converter;
+
+    public KeyCodec(TypeToken type) {
+        rawType = type.getRawType();
+        isFlagMap = FlagMap.class.isAssignableFrom(rawType);
+        reader = readerFor(type);
+        converter = converterFor(type);
+    }
+
+    public static Reader readerFor(TypeToken type) {
+        Class clazz = type.getRawType();
+        if (List.class.isAssignableFrom(clazz)) {
+            Taggifier element = taggifierFor(type.resolveType(List.class.getTypeParameters()[0]).getRawType());
+            return (dataHolder, key, error) -> {
+                ListTag toRet = new ListTag();
+                for (Object obj : (List) dataHolder.getOrElse(key, EMPTY_LIST)) {
+                    toRet.getInternal().add(element.taggify(error, obj));
+                }
+                return toRet;
+            };
+        }
+        if (Boolean.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> BooleanTag.getForBoolean(dataHolder.getOrElse((Key<BaseValue<Boolean>>) key, false));
+        }
+        else if (CatalogType.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> new TextTag(dataHolder.getValue((Key<BaseValue<CatalogType>>) key).orElseThrow(() -> new ErrorInducedException("Value not present!")).get().getId());
+        }
+        else if (Double.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> new NumberTag(dataHolder.getOrElse((Key<BaseValue<Double>>) key, 0.0));
+        }
+        else if (Enum.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> new TextTag(dataHolder.getValue((Key<BaseValue<Enum>>) key).orElseThrow(() -> new ErrorInducedException("Empty enum value!")).get().name());
+        }
+        else if (Integer.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> new IntegerTag(dataHolder.getOrElse((Key<BaseValue<Integer>>) key, 0));
+        }
+        else if (Vector3d.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> new LocationTag(dataHolder.getOrElse((Key<BaseValue<Vector3d>>) key, new Vector3d(0, 0, 0)));
+        }
+        else if (Text.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> new FormattedTextTag(dataHolder.getOrElse((Key<BaseValue<Text>>) key, Text.EMPTY));
+        }
+        else if (UUID.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> new TextTag(dataHolder.getValue((Key<BaseValue<UUID>>) key).orElseThrow(() -> new ErrorInducedException("Empty UUID value!")).get().toString());
+        }
+        else if (FlagMap.class.isAssignableFrom(clazz)) {
+            return (dataHolder, key, error) -> new MapTag(dataHolder.getOrElse((Key<BaseValue<FlagMap>>) key, new FlagMap(new MapTag())).getFlags().getInternal());
+        }
+        else {
+            return (dataHolder, key, error) -> {
+                error.run("The value type '" + clazz.getName() + "' is not supported yet, cannot get its value!");
+                return NullTag.NULL;
+            };
+        }
+    }
+
+    public static Converter converterFor(TypeToken type) {
+        if (List.class.isAssignableFrom(type.getRawType())) {
+            Converter element = converterFor(type.resolveType(List.class.getTypeParameters()[0]));
+            return (error, value) -> {
+                ArrayList toRet = new ArrayList();
+                for (AbstractTagObject obj : ListTag.getFor(error, value).getInternal()) {
+                    toRet.add(element.convert(error, obj));
+                }
+                return toRet;
+            };
+        }
+        else if (type.isSubtypeOf(Boolean.class)) {
+            return (error, value) -> BooleanTag.getFor(error, value).getInternal();
+        }
+        else if (type.isSubtypeOf(CatalogType.class)) {
+            Class clazz = type.getRawType();
+            return (error, value) -> {
+                String val = value.toString();
+                Optional optCatalogType = Sponge.getRegistry().getType(clazz, val);
+                if (!optCatalogType.isPresent()) {
+                    error.run("Invalid value '" + val + "' requested for enumeration '" + clazz.getCanonicalName() + "'!");
+                    return null;
+                }
+                return optCatalogType.get();
+            };
+        }
+        else if (type.isSubtypeOf(Double.class)) {
+            return (error, value) -> NumberTag.getFor(error, value).getInternal();
+        }
+        else if (type.isSubtypeOf(Enum.class)) {
+            Class clazz = type.getRawType();
+            return (error, value) -> Enum.valueOf(clazz, value.toString().toUpperCase());
+        }
+        else if (type.isSubtypeOf(Integer.class)) {
+            return (error, value) -> (int) IntegerTag.getFor(error, value).getInternal();
+        }
+        else if (type.isSubtypeOf(Vector3d.class)) {
+            return (error, value) -> LocationTag.getFor(error, value).getInternal().toVector3d();
+        }
+        else if (type.isSubtypeOf(Text.class)) {
+            return (error, value) -> {
+                if (value instanceof FormattedTextTag) {
+                    return ((FormattedTextTag) value).getInternal();
+                }
+                else {
+                    return Denizen2Sponge.parseColor(value.toString());
+                }
+            };
+        }
+        else if (type.isSubtypeOf(UUID.class)) {
+            return (error, value) -> UUID.fromString(value.toString());
+        }
+        else if (type.isSubtypeOf(FlagMap.class)) {
+            return (error, value) -> new FlagMap(MapTag.getFor(error, value));
+        }
+        else {
+            return (error, value) -> {
+                error.run("The value type '" + type.getRawType().getCanonicalName() + "' is not supported yet, cannot apply!");
+                return null;
+            };
+        }
+    }
+
+    /**
+     * Picks the conversion for list elements of a known type, falling back to checking each value's own type.
+     */
+    public static Taggifier taggifierFor(Class clazz) {
+        if (Boolean.class.isAssignableFrom(clazz)) {
+            return (error, input) -> BooleanTag.getForBoolean((Boolean) input);
+        }
+        if (Double.class.isAssignableFrom(clazz)) {
+            return (error, input) -> new NumberTag((Double) input);
+        }
+        if (Integer.class.isAssignableFrom(clazz)) {
+            return (error, input) -> new IntegerTag((Integer) input);
+        }
+        if (Vector3d.class.isAssignableFrom(clazz)) {
+            return (error, input) -> new LocationTag((Vector3d) input);
+        }
+        if (Text.class.isAssignableFrom(clazz)) {
+            return (error, input) -> new FormattedTextTag((Text) input);
+        }
+        if (UUID.class.isAssignableFrom(clazz)) {
+            return (error, input) -> new TextTag(input.toString());
+        }
+        return DataKeys::taggifyObject;
+    }
+}
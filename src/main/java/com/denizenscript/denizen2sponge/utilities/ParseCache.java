@@ -0,0 +1,81 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.world.UnloadWorldEvent;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded, least-recently-used cache of text already parsed into some value, such as a location or cuboid.
+ * Values handed to the cache must not be modified afterwards; callers copy them out instead.
+ * Values that reference a world are dropped when that world unloads.
+ */
+public class ParseCache<T> {
+
+    private static final List<ParseCache<?>> caches = new ArrayList<>();
+
+    public static void register() {
+        Sponge.getEventManager().registerListeners(Denizen2Sponge.instance, new WorldListener());
+    }
+
+    public static void clearAll() {
+        synchronized (caches) {
+            for (ParseCache<?> cache : caches) {
+                cache.clear();
+            }
+        }
+    }
+
+    private final LinkedHashMap<String, T> entries;
+
+    private final Function<T, World> worldOf;
+
+    public ParseCache(int maxSize, Function<T, World> worldOf) {
+        this.worldOf = worldOf;
+        entries = new LinkedHashMap<String, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                return size() > maxSize;
+            }
+        };
+        synchronized (caches) {
+            caches.add(this);
+        }
+    }
+
+    public synchronized T get(String text) {
+        return entries.get(text);
+    }
+
+    public synchronized void put(String text, T value) {
+        entries.put(text, value);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized void removeWorld(World world) {
+        entries.values().removeIf(value -> worldOf.apply(value) == world);
+    }
+
+    public static class WorldListener {
+
+        @Listener(order = Order.POST)
+        public void onWorldUnloads(UnloadWorldEvent evt) {
+            synchronized (caches) {
+                for (ParseCache<?> cache : caches) {
+                    cache.removeWorld(evt.getTargetWorld());
+                }
+            }
+        }
+    }
+}
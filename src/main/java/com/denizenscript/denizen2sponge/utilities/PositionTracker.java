@@ -0,0 +1,151 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import java.util.UUID;
+
+/**
+ * Tracks the last accepted position and world of each entity, keyed by its full UUID held as two primitive longs.
+ * Open addressing with linear probing, so lookups and updates don't allocate.
+ */
+public class PositionTracker {
+
+    private final double distanceSquared;
+
+    private long[] mostBits = new long[64];
+
+    private long[] leastBits = new long[64];
+
+    private long[] worldMostBits = new long[64];
+
+    private long[] worldLeastBits = new long[64];
+
+    private double[] positions = new double[64 * 3];
+
+    private boolean[] used = new boolean[64];
+
+    private int size = 0;
+
+    public PositionTracker(double distance) {
+        distanceSquared = distance * distance;
+    }
+
+    private static int slot(long most, long least, int mask) {
+        long h = (most ^ (least * 31)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private int find(long most, long least) {
+        int mask = mostBits.length - 1;
+        int i = slot(most, least, mask);
+        while (used[i]) {
+            if (mostBits[i] == most && leastBits[i] == least) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1 - i;
+    }
+
+    /**
+     * Returns true and records the position if the entity is new, has changed world, or has moved at least the
+     * configured distance since the last recorded position. Returns false and leaves the record alone otherwise.
+     */
+    public boolean moveIfFurther(UUID id, UUID world, double x, double y, double z) {
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        int i = find(most, least);
+        if (i >= 0) {
+            boolean sameWorld = worldMostBits[i] == world.getMostSignificantBits()
+                    && worldLeastBits[i] == world.getLeastSignificantBits();
+            double dx = x - positions[i * 3];
+            double dy = y - positions[i * 3 + 1];
+            double dz = z - positions[i * 3 + 2];
+            if (sameWorld && dx * dx + dy * dy + dz * dz < distanceSquared) {
+                return false;
+            }
+        }
+        else {
+            if ((size + 1) * 2 > mostBits.length) {
+                grow();
+                i = find(most, least);
+            }
+            i = -1 - i;
+            used[i] = true;
+            mostBits[i] = most;
+            leastBits[i] = least;
+            size++;
+        }
+        worldMostBits[i] = world.getMostSignificantBits();
+        worldLeastBits[i] = world.getLeastSignificantBits();
+        positions[i * 3] = x;
+        positions[i * 3 + 1] = y;
+        positions[i * 3 + 2] = z;
+        return true;
+    }
+
+    public void remove(UUID id) {
+        int i = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (i < 0) {
+            return;
+        }
+        int mask = mostBits.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!used[j]) {
+                break;
+            }
+            int k = slot(mostBits[j], leastBits[j], mask);
+            boolean inRange = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (!inRange) {
+                mostBits[i] = mostBits[j];
+                leastBits[i] = leastBits[j];
+                worldMostBits[i] = worldMostBits[j];
+                worldLeastBits[i] = worldLeastBits[j];
+                positions[i * 3] = positions[j * 3];
+                positions[i * 3 + 1] = positions[j * 3 + 1];
+                positions[i * 3 + 2] = positions[j * 3 + 2];
+                i = j;
+            }
+        }
+        used[i] = false;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldMost = mostBits;
+        long[] oldLeast = leastBits;
+        long[] oldWorldMost = worldMostBits;
+        long[] oldWorldLeast = worldLeastBits;
+        double[] oldPositions = positions;
+        boolean[] oldUsed = used;
+        int length = oldMost.length * 2;
+        mostBits = new long[length];
+        leastBits = new long[length];
+        worldMostBits = new long[length];
+        worldLeastBits = new long[length];
+        positions = new double[length * 3];
+        used = new boolean[length];
+        int mask = length - 1;
+        for (int o = 0; o < oldMost.length; o++) {
+            if (!oldUsed[o]) {
+                continue;
+            }
+            int i = slot(oldMost[o], oldLeast[o], mask);
+            while (used[i]) {
+                i = (i + 1) & mask;
+            }
+            used[i] = true;
+            mostBits[i] = oldMost[o];
+            leastBits[i] = oldLeast[o];
+            worldMostBits[i] = oldWorldMost[o];
+            worldLeastBits[i] = oldWorldLeast[o];
+            positions[i * 3] = oldPositions[o * 3];
+            positions[i * 3 + 1] = oldPositions[o * 3 + 1];
+            positions[i * 3 + 2] = oldPositions[o * 3 + 2];
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.denizenscript.denizen2core.tags.objects.DurationTag;
+import com.denizenscript.denizen2core.tags.objects.IntegerTag;
+import com.denizenscript.denizen2core.tags.objects.MapTag;
+import com.denizenscript.denizen2sponge.Settings;
+
+/**
+ * Runs the central Denizen2 tick under a per-tick time budget.
+ * Event-driven queues run straight away inside their Sponge event, but their time is charged against the budget.
+ * Background work (waiting and looping queues, advanced by Denizen2Core.tick) is put off to a later tick
+ * when the budget is already used up, and is then given all the time that passed so waits still end on time.
+ * Time spent beyond the budget is carried over into the next tick, but never more than one budget's worth,
+ * so a single long event can hold background work back for a tick or two at most.
+ * <p>
+ * This skips whole central ticks: it does not cut a running loop short. The core runs each queue step to
+ * completion, so a huge loop still finishes in the tick it starts in, and only the ticks after it are thinned out.
+ */
+public class QueueScheduler {
+
+    public static long budgetNanos = 0;
+
+    public static int maxDeferredTicks = 0;
+
+    // Event-driven script time since the last tick, plus the overrun carried over from the last tick.
+    public static long usedNanos = 0;
+
+    // How many timed sections are running. Only the outermost is charged, as it already includes the nested ones.
+    private static int depth = 0;
+
+    private static double pendingDelta = 0;
+
+    private static int deferredInARow = 0;
+
+    public static long ticks = 0;
+
+    public static long overruns = 0;
+
+    public static long overrunNanos = 0;
+
+    public static long deferredTicks = 0;
+
+    public static long maxTickNanos = 0;
+
+    public static void loadSettings() {
+        budgetNanos = (long) (Settings.queueTickBudget() * 1_000_000);
+        maxDeferredTicks = Settings.queueMaxDeferredTicks();
+    }
+
+    public static boolean isBudgeted() {
+        return budgetNanos > 0;
+    }
+
+    /**
+     * Marks the start of event-driven script work, returning the start time to pass to {@link #end(long)}.
+     */
+    public static long begin() {
+        depth++;
+        return System.nanoTime();
+    }
+
+    public static void end(long start) {
+        depth--;
+        if (depth == 0) {
+            usedNanos += System.nanoTime() - start;
+        }
+    }
+
+    private static long carryOver(long overrun) {
+        return Math.min(overrun, budgetNanos);
+    }
+
+    public static void tick(double delta) {
+        pendingDelta += delta;
+        if (!isBudgeted()) {
+            Timings.tick(pendingDelta);
+            pendingDelta = 0;
+            return;
+        }
+        long used = usedNanos;
+        usedNanos = 0;
+        if (used >= budgetNanos && deferredInARow < maxDeferredTicks) {
+            deferredInARow++;
+            deferredTicks++;
+            usedNanos = carryOver(used - budgetNanos);
+            return;
+        }
+        deferredInARow = 0;
+        long start = System.nanoTime();
+        // Events fired from inside the tick are part of its own time, so keep them from being charged again.
+        depth++;
+        try {
+            Timings.tick(pendingDelta);
+        }
+        finally {
+            depth--;
+        }
+        pendingDelta = 0;
+        long total = used + System.nanoTime() - start;
+        ticks++;
+        if (total > maxTickNanos) {
+            maxTickNanos = total;
+        }
+        if (total > budgetNanos) {
+            overruns++;
+            overrunNanos += total - budgetNanos;
+            usedNanos += carryOver(total - budgetNanos);
+        }
+    }
+
+    public static void resetStatistics() {
+        ticks = 0;
+        overruns = 0;
+        overrunNanos = 0;
+        deferredTicks = 0;
+        maxTickNanos = 0;
+    }
+
+    public static MapTag toMapTag() {
+        MapTag map = new MapTag();
+        map.getInternal().put("budget", new DurationTag(budgetNanos / 1_000_000_000.0));
+        map.getInternal().put("ticks", new IntegerTag(ticks));
+        map.getInternal().put("overruns", new IntegerTag(overruns));
+        map.getInternal().put("overrun_time", new DurationTag(overrunNanos / 1_000_000_000.0));
+        map.getInternal().put("deferred_ticks", new IntegerTag(deferredTicks));
+        map.getInternal().put("max_tick", new DurationTag(maxTickNanos / 1_000_000_000.0));
+        return map;
+    }
+}
@@ -0,0 +1,54 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.denizenscript.denizen2core.commands.AbstractCommand;
+import com.denizenscript.denizen2core.commands.CommandEntry;
+import com.denizenscript.denizen2core.commands.CommandQueue;
+import org.spongepowered.api.Sponge;
+
+/**
+ * Wraps a script command so that its executions are recorded by Timings.
+ */
+public class TimedCommand extends AbstractCommand {
+
+    public final AbstractCommand command;
+
+    public TimedCommand(AbstractCommand command) {
+        this.command = command;
+    }
+
+    @Override
+    public String getName() {
+        return command.getName();
+    }
+
+    @Override
+    public String getArguments() {
+        return command.getArguments();
+    }
+
+    @Override
+    public int getMinimumArguments() {
+        return command.getMinimumArguments();
+    }
+
+    @Override
+    public int getMaximumArguments() {
+        return command.getMaximumArguments();
+    }
+
+    @Override
+    public void execute(CommandQueue queue, CommandEntry entry) {
+        if (!Timings.enabled || !Sponge.getServer().isMainThread()) {
+            command.execute(queue, entry);
+            return;
+        }
+        long allocStart = Timings.allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            command.execute(queue, entry);
+        }
+        finally {
+            Timings.record(Timings.commands, command.getName(), start, allocStart);
+        }
+    }
+}
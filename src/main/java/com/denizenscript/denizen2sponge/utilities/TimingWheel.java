@@ -0,0 +1,130 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: scheduling and expiring an entry are both constant time, no matter how many are pending.
+ * Each level has 64 slots, each level's slots span 64 of the level below, and anything further out than the top level
+ * waits in an overflow list until the wheel comes round.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static final class Entry<T> {
+
+        public final long tick;
+
+        public final T value;
+
+        public Entry(long tick, T value) {
+            this.tick = tick;
+            this.value = value;
+        }
+    }
+
+    private final long tickMillis;
+
+    private final List<Entry<T>>[][] wheels;
+
+    private List<Entry<T>> overflow = new ArrayList<>();
+
+    private List<Entry<T>> due = new ArrayList<>();
+
+    private long currentTick;
+
+    private int size = 0;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int levels, long nowMillis) {
+        this.tickMillis = tickMillis;
+        wheels = new List[levels][SLOTS];
+        currentTick = nowMillis / tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void schedule(long expiresMillis, T value) {
+        size++;
+        place(new Entry<>(expiresMillis / tickMillis, value));
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.tick - currentTick;
+        if (delta <= 0) {
+            due.add(entry);
+            return;
+        }
+        for (int level = 0; level < wheels.length; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1)))) {
+                int slot = (int) (entry.tick >> (SLOT_BITS * level)) & SLOT_MASK;
+                List<Entry<T>> list = wheels[level][slot];
+                if (list == null) {
+                    list = new ArrayList<>(4);
+                    wheels[level][slot] = list;
+                }
+                list.add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private void cascade(int level) {
+        if (level >= wheels.length) {
+            List<Entry<T>> old = overflow;
+            overflow = new ArrayList<>();
+            for (Entry<T> entry : old) {
+                place(entry);
+            }
+            return;
+        }
+        int slot = (int) (currentTick >> (SLOT_BITS * level)) & SLOT_MASK;
+        if (slot == 0) {
+            cascade(level + 1);
+        }
+        List<Entry<T>> list = wheels[level][slot];
+        if (list != null) {
+            wheels[level][slot] = null;
+            for (Entry<T> entry : list) {
+                place(entry);
+            }
+        }
+    }
+
+    /**
+     * Moves the wheel up to the given time, handing every entry that has come due to the consumer.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            if ((currentTick & SLOT_MASK) == 0) {
+                cascade(1);
+            }
+            int slot = (int) currentTick & SLOT_MASK;
+            List<Entry<T>> list = wheels[0][slot];
+            if (list != null) {
+                wheels[0][slot] = null;
+                due.addAll(list);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> fire = due;
+        due = new ArrayList<>();
+        size -= fire.size();
+        for (Entry<T> entry : fire) {
+            expired.accept(entry.value);
+        }
+    }
+}
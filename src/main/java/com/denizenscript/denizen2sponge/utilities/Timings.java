@@ -0,0 +1,181 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import com.denizenscript.denizen2core.Denizen2Core;
+import com.denizenscript.denizen2core.events.ScriptEvent;
+import com.denizenscript.denizen2core.tags.objects.BooleanTag;
+import com.denizenscript.denizen2core.tags.objects.DurationTag;
+import com.denizenscript.denizen2core.tags.objects.IntegerTag;
+import com.denizenscript.denizen2core.tags.objects.MapTag;
+import org.spongepowered.api.Sponge;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * Collects fire counts, time and allocations for script events, script commands and the central tick loop.
+ * Every hook checks 'enabled' before doing anything else, so the profiler is close to free while it's off.
+ */
+public class Timings {
+
+    public static class Record {
+
+        public final String name;
+
+        public long count = 0;
+
+        public long nanos = 0;
+
+        public long maxNanos = 0;
+
+        public long allocated = 0;
+
+        public Record(String name) {
+            this.name = name;
+        }
+
+        public void add(long time, long bytes) {
+            count++;
+            nanos += time;
+            if (time > maxNanos) {
+                maxNanos = time;
+            }
+            allocated += bytes;
+        }
+
+        public MapTag toMapTag() {
+            MapTag map = new MapTag();
+            map.getInternal().put("count", new IntegerTag(count));
+            map.getInternal().put("total", new DurationTag(nanos / 1_000_000_000.0));
+            map.getInternal().put("max", new DurationTag(maxNanos / 1_000_000_000.0));
+            map.getInternal().put("allocated", new IntegerTag(allocated));
+            return map;
+        }
+    }
+
+    public static boolean enabled = false;
+
+    public static long enabledSince = 0;
+
+    public static final HashMap<String, Record> events = new HashMap<>();
+
+    public static final HashMap<String, Record> commands = new HashMap<>();
+
+    public static final Record tick = new Record("tick");
+
+    // Only available on HotSpot-like JVMs, allocations are reported as zero elsewhere.
+    private static final com.sun.management.ThreadMXBean allocationBean = getAllocationBean();
+
+    private static com.sun.management.ThreadMXBean getAllocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            return (com.sun.management.ThreadMXBean) bean;
+        }
+        return null;
+    }
+
+    public static long allocatedBytes() {
+        if (allocationBean == null) {
+            return 0;
+        }
+        return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void enable() {
+        if (!enabled) {
+            reset();
+            enabled = true;
+        }
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static void reset() {
+        events.clear();
+        commands.clear();
+        tick.count = 0;
+        tick.nanos = 0;
+        tick.maxNanos = 0;
+        tick.allocated = 0;
+        QueueScheduler.resetStatistics();
+        enabledSince = System.currentTimeMillis();
+    }
+
+    public static void record(HashMap<String, Record> records, String name, long start, long allocStart) {
+        long time = System.nanoTime() - start;
+        long bytes = allocatedBytes() - allocStart;
+        Record record = records.get(name);
+        if (record == null) {
+            record = new Record(name);
+            records.put(name, record);
+        }
+        record.add(time, bytes);
+    }
+
+    /**
+     * Runs a script event, recording the time spent matching its paths and running the queues it starts.
+     * The time is also charged to the queue scheduler's tick budget when one is set.
+     * Events fired off the main thread, such as server list pings, are run untimed.
+     */
+    public static void runEvent(ScriptEvent event) {
+        if ((!enabled && !QueueScheduler.isBudgeted()) || !Sponge.getServer().isMainThread()) {
+            event.run();
+            return;
+        }
+        long allocStart = enabled ? allocatedBytes() : 0;
+        long start = QueueScheduler.begin();
+        try {
+            event.run();
+        }
+        finally {
+            QueueScheduler.end(start);
+            if (enabled) {
+                record(events, event.getName(), start, allocStart);
+            }
+        }
+    }
+
+    public static void tick(double delta) {
+        if (!enabled) {
+            Denizen2Core.tick(delta);
+            return;
+        }
+        long allocStart = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            Denizen2Core.tick(delta);
+        }
+        finally {
+            tick.add(System.nanoTime() - start, allocatedBytes() - allocStart);
+        }
+    }
+
+    public static List<Record> sorted(HashMap<String, Record> records) {
+        List<Record> list = new ArrayList<>(records.values());
+        list.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return list;
+    }
+
+    public static MapTag toMapTag() {
+        MapTag map = new MapTag();
+        MapTag eventMap = new MapTag();
+        for (Record record : events.values()) {
+            eventMap.getInternal().put(record.name, record.toMapTag());
+        }
+        MapTag commandMap = new MapTag();
+        for (Record record : commands.values()) {
+            commandMap.getInternal().put(record.name, record.toMapTag());
+        }
+        map.getInternal().put("enabled", BooleanTag.getForBoolean(enabled));
+        long duration = enabledSince == 0 ? 0 : System.currentTimeMillis() - enabledSince;
+        map.getInternal().put("duration", new DurationTag(duration / 1000.0));
+        map.getInternal().put("tick", tick.toMapTag());
+        map.getInternal().put("events", eventMap);
+        map.getInternal().put("commands", commandMap);
+        map.getInternal().put("scheduler", QueueScheduler.toMapTag());
+        return map;
+    }
+}
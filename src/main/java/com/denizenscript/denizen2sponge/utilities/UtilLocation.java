@@ -23,6 +23,13 @@ public class UtilLocation {
         world = w;
     }
 
+    public UtilLocation(Vector3d vec, World w) {
+        x = vec.getX();
+        y = vec.getY();
+        z = vec.getZ();
+        world = w;
+    }
+
     public UtilLocation(double _x, double _y, double _z, World _w) {
         x = _x;
         y = _y;
@@ -1,16 +1,18 @@
 package com.denizenscript.denizen2sponge.utilities;
 
+import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.MapTag;
-import com.denizenscript.denizen2core.tags.objects.TimeTag;
 import com.denizenscript.denizen2core.utilities.Action;
+import com.denizenscript.denizen2core.utilities.CoreUtilities;
+import com.denizenscript.denizen2sponge.utilities.flags.FlagExpiry;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.entity.living.player.gamemode.GameModes;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Utilities {
 
@@ -24,18 +26,11 @@ public class Utilities {
     }
 
     public static boolean flagIsValidAndNotExpired(Action<String> error, MapTag flags, String flagName) {
-        boolean b = false;
-        if (flags.getInternal().containsKey(flagName)) {
-            b = true;
-            MapTag subMap = MapTag.getFor(error, flags.getInternal().get(flagName));
-            if (subMap.getInternal().containsKey("duration")) {
-                TimeTag tt = TimeTag.getFor(error, subMap.getInternal().get("duration"));
-                if (tt.getInternal().isBefore(LocalDateTime.now(ZoneId.of("UTC")))) {
-                    b = false;
-                }
-            }
-        }
-        return b;
+        return flagIsValidAndNotExpired(error, flags.getInternal().get(flagName));
+    }
+
+    public static boolean flagIsValidAndNotExpired(Action<String> error, AbstractTagObject flag) {
+        return flag != null && !FlagExpiry.isExpired(error, flag, System.currentTimeMillis());
     }
 
     public static String getIdWithoutDefaultPrefix(String id) {
@@ -51,7 +46,45 @@ public class Utilities {
         return id;
     }
 
+    // Resolved catalog types per catalog class, by lowercased input. Only inputs that match a type get in, so it's
+    // bounded by the registry.
+    private static final ConcurrentHashMap<Class, ConcurrentHashMap<String, Object>> typeCache = new ConcurrentHashMap<>();
+
+    // Inputs that matched nothing. These can be anything a script passes in, so each class keeps only so many.
+    private static final ConcurrentHashMap<Class, Set<String>> typeMisses = new ConcurrentHashMap<>();
+
+    private static final int MAX_TYPE_MISSES = 1024;
+
+    public static void clearTypeCache() {
+        typeCache.clear();
+        typeMisses.clear();
+    }
+
     public static Object getTypeWithDefaultPrefix(Class clazz, String name) {
+        ConcurrentHashMap<String, Object> cache = typeCache.computeIfAbsent(clazz, k -> new ConcurrentHashMap<>());
+        String lowName = CoreUtilities.toLowerCase(name);
+        Object type = cache.get(lowName);
+        if (type != null) {
+            return type;
+        }
+        Set<String> misses = typeMisses.computeIfAbsent(clazz, k -> ConcurrentHashMap.newKeySet());
+        if (misses.contains(lowName)) {
+            return null;
+        }
+        type = findTypeWithDefaultPrefix(clazz, lowName);
+        if (type != null) {
+            cache.put(lowName, type);
+        }
+        else {
+            if (misses.size() >= MAX_TYPE_MISSES) {
+                misses.clear();
+            }
+            misses.add(lowName);
+        }
+        return type;
+    }
+
+    private static Object findTypeWithDefaultPrefix(Class clazz, String name) {
         Optional<?> opt = Sponge.getRegistry().getType(clazz, name);
         if (opt.isPresent()) {
             return opt.get();
@@ -0,0 +1,206 @@
+package com.denizenscript.denizen2sponge.utilities.flags;
+
+import com.denizenscript.denizen2core.tags.objects.MapTag;
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.entity.DestructEntityEvent;
+import org.spongepowered.api.event.game.state.GameStoppingServerEvent;
+import org.spongepowered.api.event.network.ClientConnectionEvent;
+import org.spongepowered.api.event.world.SaveWorldEvent;
+import org.spongepowered.api.event.world.chunk.UnloadChunkEvent;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Entity flag maps kept in memory by entity UUID, so reading and changing flags doesn't go through Sponge's data
+ * system every time. Changed maps are written back to the entity before its world saves, its chunk unloads, it is
+ * destroyed, a player leaves, or the server stops, plus a slow periodic flush as a safety net.
+ * Player data is saved apart from worlds, before their save events fire, so changed player maps are instead written
+ * back at the start of each tick, ahead of any autosave in that tick.
+ */
+public class EntityFlags {
+
+    private static final class Entry {
+
+        public Entity entity;
+
+        public final MapTag flags;
+
+        public boolean dirty = false;
+
+        public Entry(Entity entity, MapTag flags) {
+            this.entity = entity;
+            this.flags = flags;
+        }
+    }
+
+    private static final HashMap<UUID, Entry> entries = new HashMap<>();
+
+    private static final List<Entry> dirty = new ArrayList<>();
+
+    private static final List<Entry> dirtyPlayers = new ArrayList<>();
+
+    // A safety net only: the save, unload, destroy, quit and stop hooks are what keep flags saved.
+    private static final int FLUSH_INTERVAL_TICKS = 20 * 60;
+
+    public static void register() {
+        Sponge.getEventManager().registerListeners(Denizen2Sponge.instance, new EntityFlags());
+        Sponge.getScheduler().createTaskBuilder().intervalTicks(FLUSH_INTERVAL_TICKS).execute(EntityFlags::flushDirty).submit(Denizen2Sponge.instance);
+        Sponge.getScheduler().createTaskBuilder().intervalTicks(1).execute(EntityFlags::flushPlayers).submit(Denizen2Sponge.instance);
+    }
+
+    private static Entry getEntry(Entity ent) {
+        Entry entry = entries.get(ent.getUniqueId());
+        if (entry != null && entry.entity == ent) {
+            return entry;
+        }
+        if (entry != null) {
+            // Same UUID but a new entity object, such as a respawned or transferred player. The old object is gone,
+            // so keep the held flags and any unwritten changes, and write them to the new one from now on.
+            entry.entity = ent;
+            return entry;
+        }
+        Optional<FlagMap> fm = ent.get(FlagHelper.FLAGMAP);
+        entry = new Entry(ent, fm.isPresent() ? fm.get().getFlags() : new MapTag());
+        entries.put(ent.getUniqueId(), entry);
+        return entry;
+    }
+
+    /**
+     * Returns the live flag map of the entity. Call markDirty after changing it.
+     */
+    public static synchronized MapTag getFlags(Entity ent) {
+        return getEntry(ent).flags;
+    }
+
+    /**
+     * Returns the names of the entity's flags, without pulling an entity that isn't held yet into memory.
+     */
+    public static synchronized List<String> getFlagNames(Entity ent) {
+        Entry entry = entries.get(ent.getUniqueId());
+        if (entry != null) {
+            return new ArrayList<>(entry.flags.getInternal().keySet());
+        }
+        Optional<FlagMap> fm = ent.get(FlagHelper.FLAGMAP);
+        return fm.isPresent() ? fm.get().getFlagNames() : new ArrayList<>();
+    }
+
+    public static synchronized void markDirty(Entity ent) {
+        Entry entry = getEntry(ent);
+        if (!entry.dirty) {
+            queue(entry);
+        }
+    }
+
+    private static void queue(Entry entry) {
+        entry.dirty = true;
+        (entry.entity instanceof Player ? dirtyPlayers : dirty).add(entry);
+    }
+
+    /**
+     * Replaces the entity's flag map outright, such as when the whole map is applied as a data key.
+     */
+    public static synchronized void setFlags(Entity ent, MapTag flags) {
+        Entry old = entries.get(ent.getUniqueId());
+        if (old != null) {
+            old.dirty = false;
+        }
+        Entry entry = new Entry(ent, flags);
+        entries.put(ent.getUniqueId(), entry);
+        queue(entry);
+        FlagIndex.setFlags(ent.getUniqueId(), flags.getInternal().keySet());
+    }
+
+    private static void flush(Entry entry) {
+        if (entry.dirty) {
+            entry.dirty = false;
+            entry.entity.offer(new FlagMapDataImpl(new FlagMap(entry.flags)));
+        }
+    }
+
+    private static void flushAll(List<Entry> queue) {
+        if (queue.isEmpty()) {
+            return;
+        }
+        for (Entry entry : queue) {
+            flush(entry);
+        }
+        queue.clear();
+    }
+
+    public static synchronized void flushDirty() {
+        flushAll(dirty);
+        flushAll(dirtyPlayers);
+    }
+
+    public static synchronized void flushPlayers() {
+        flushAll(dirtyPlayers);
+    }
+
+    public static synchronized void flushWorld(World world) {
+        flushWorld(world, dirty);
+        flushWorld(world, dirtyPlayers);
+    }
+
+    private static void flushWorld(World world, List<Entry> queue) {
+        Iterator<Entry> it = queue.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (!entry.dirty) {
+                it.remove();
+            }
+            else if (entry.entity.getWorld() == world) {
+                flush(entry);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Writes back and forgets the entity's flags, for when it is leaving memory.
+     */
+    public static synchronized void release(Entity ent) {
+        Entry entry = entries.get(ent.getUniqueId());
+        if (entry != null && entry.entity == ent) {
+            flush(entry);
+            entries.remove(ent.getUniqueId());
+        }
+    }
+
+    @Listener(order = Order.PRE)
+    public void onWorldSaves(SaveWorldEvent.Pre evt) {
+        flushWorld(evt.getTargetWorld());
+    }
+
+    @Listener(order = Order.PRE)
+    public void onChunkUnloads(UnloadChunkEvent evt) {
+        for (Entity ent : evt.getTargetChunk().getEntities()) {
+            release(ent);
+        }
+    }
+
+    @Listener(order = Order.PRE)
+    public void onEntityDestroyed(DestructEntityEvent evt) {
+        release(evt.getTargetEntity());
+    }
+
+    @Listener(order = Order.PRE)
+    public void onPlayerQuits(ClientConnectionEvent.Disconnect evt) {
+        release(evt.getTargetEntity());
+    }
+
+    @Listener(order = Order.PRE)
+    public void onServerStopping(GameStoppingServerEvent evt) {
+        flushDirty();
+    }
+}
@@ -0,0 +1,196 @@
+package com.denizenscript.denizen2sponge.utilities.flags;
+
+import com.denizenscript.denizen2core.tags.AbstractTagObject;
+import com.denizenscript.denizen2core.tags.objects.IntegerTag;
+import com.denizenscript.denizen2core.tags.objects.MapTag;
+import com.denizenscript.denizen2core.tags.objects.TimeTag;
+import com.denizenscript.denizen2core.utilities.Action;
+import com.denizenscript.denizen2core.utilities.debugging.Debug;
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.denizenscript.denizen2sponge.events.server.FlagExpiresScriptEvent;
+import com.denizenscript.denizen2sponge.utilities.EntityIndex;
+import com.denizenscript.denizen2sponge.utilities.TimingWheel;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.entity.Entity;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Flag expiry times, stored on each flag as epoch milliseconds under 'duration', and the sweeper that removes
+ * flags once they expire. Flags saved before this format stored a TimeTag there, which is converted on first read.
+ */
+public class FlagExpiry {
+
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private static final class Pending {
+
+        public final UUID holder;
+
+        public final String flag;
+
+        public final long expires;
+
+        public Pending(UUID holder, String flag, long expires) {
+            this.holder = holder;
+            this.flag = flag;
+            this.expires = expires;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Pending)) {
+                return false;
+            }
+            Pending other = (Pending) o;
+            return expires == other.expires && flag.equals(other.flag) && Objects.equals(holder, other.holder);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(holder, flag, expires);
+        }
+    }
+
+    // Everything in the wheel, so a flag seen again (such as when its shard is loaded back in) isn't scheduled twice.
+    private static final HashSet<Pending> scheduled = new HashSet<>();
+
+    // Entity flags that came due while their entity wasn't loaded, tried again when it is.
+    private static final HashMap<UUID, List<Pending>> waiting = new HashMap<>();
+
+    // One tick per server tick, four levels deep covers about nine days before falling back to the overflow list.
+    private static final TimingWheel<Pending> wheel = new TimingWheel<>(50, 4, System.currentTimeMillis());
+
+    public static void register() {
+        Sponge.getScheduler().createTaskBuilder().intervalTicks(1).execute(FlagExpiry::sweep).submit(Denizen2Sponge.instance);
+    }
+
+    public static AbstractTagObject toTag(long expires) {
+        return new IntegerTag(expires);
+    }
+
+    public static TimeTag toTimeTag(long expires) {
+        return new TimeTag(LocalDateTime.ofInstant(Instant.ofEpochMilli(expires), ZoneOffset.UTC));
+    }
+
+    /**
+     * Returns when the flag expires, in epoch milliseconds, or NEVER.
+     */
+    public static long getExpiry(Action<String> error, AbstractTagObject flag) {
+        MapTag subMap = MapTag.getFor(error, flag);
+        AbstractTagObject duration = subMap.getInternal().get("duration");
+        if (duration == null) {
+            return NEVER;
+        }
+        if (duration instanceof IntegerTag) {
+            return ((IntegerTag) duration).getInternal();
+        }
+        // Older flags hold the expiry time as a TimeTag, swap it for the epoch form so this only happens once.
+        long expires = TimeTag.getFor(error, duration).getInternal().toInstant(ZoneOffset.UTC).toEpochMilli();
+        subMap.getInternal().put("duration", toTag(expires));
+        return expires;
+    }
+
+    public static boolean isExpired(Action<String> error, AbstractTagObject flag, long now) {
+        long expires = getExpiry(error, flag);
+        return expires != NEVER && expires < now;
+    }
+
+    public static synchronized void schedule(UUID holder, String flag, long expires) {
+        Pending pending = new Pending(holder, flag, expires);
+        if (scheduled.add(pending)) {
+            wheel.schedule(expires, pending);
+        }
+    }
+
+    /**
+     * Schedules the server flags that have an expiry, called as they're loaded.
+     */
+    public static void scheduleServerFlags(Map<String, AbstractTagObject> flags) {
+        for (Map.Entry<String, AbstractTagObject> flag : flags.entrySet()) {
+            long expires = getExpiry(Debug::error, flag.getValue());
+            if (expires != NEVER) {
+                schedule(null, flag.getKey(), expires);
+            }
+        }
+    }
+
+    /**
+     * Schedules the entity's flags that have an expiry, along with any that came due while it was away.
+     * Called as the entity is seen loading, so expiries survive both unloads and restarts.
+     */
+    public static synchronized void scheduleEntity(Entity ent) {
+        List<Pending> due = waiting.remove(ent.getUniqueId());
+        if (due != null) {
+            for (Pending pending : due) {
+                if (scheduled.add(pending)) {
+                    wheel.schedule(pending.expires, pending);
+                }
+            }
+        }
+        for (Map.Entry<String, AbstractTagObject> flag : EntityFlags.getFlags(ent).getInternal().entrySet()) {
+            long expires = getExpiry(Debug::error, flag.getValue());
+            if (expires != NEVER) {
+                schedule(ent.getUniqueId(), flag.getKey(), expires);
+            }
+        }
+    }
+
+    /**
+     * Drops anything waiting on an entity that is gone for good. Its flags are scanned again if it ever comes back.
+     */
+    public static synchronized void forget(UUID holder) {
+        waiting.remove(holder);
+    }
+
+    public static synchronized int pending() {
+        return wheel.size();
+    }
+
+    public static synchronized void sweep() {
+        wheel.advance(System.currentTimeMillis(), FlagExpiry::expire);
+    }
+
+    private static void expire(Pending pending) {
+        if (pending.expires >= System.currentTimeMillis()) {
+            // The wheel hands out whole slots, so this can come up just before the flag is actually expired.
+            wheel.schedule(pending.expires, pending);
+            return;
+        }
+        scheduled.remove(pending);
+        if (pending.holder == null) {
+            AbstractTagObject flag = ServerFlags.getFlag(pending.flag);
+            if (flag == null || getExpiry(Debug::error, flag) != pending.expires) {
+                return;
+            }
+            ServerFlags.removeFlag(pending.flag);
+            FlagExpiresScriptEvent.fire(null, pending.flag, MapTag.getFor(Debug::error, flag).getInternal().get("value"));
+            return;
+        }
+        // Entities that aren't loaded keep the flag until they're back, where it's treated as expired anyway.
+        Optional<Entity> ent = EntityIndex.getEntity(pending.holder);
+        if (!ent.isPresent()) {
+            waiting.computeIfAbsent(pending.holder, k -> new ArrayList<>()).add(pending);
+            return;
+        }
+        MapTag flags = EntityFlags.getFlags(ent.get());
+        AbstractTagObject flag = flags.getInternal().get(pending.flag);
+        if (flag == null || getExpiry(Debug::error, flag) != pending.expires) {
+            return;
+        }
+        flags.getInternal().remove(pending.flag);
+        EntityFlags.markDirty(ent.get());
+        FlagIndex.remove(pending.holder, pending.flag);
+        FlagExpiresScriptEvent.fire(ent.get(), pending.flag, MapTag.getFor(Debug::error, flag).getInternal().get("value"));
+    }
+}
@@ -2,6 +2,7 @@ package com.denizenscript.denizen2sponge.utilities.flags;
 
 import com.denizenscript.denizen2sponge.Denizen2Sponge;
 import com.google.common.reflect.TypeToken;
+import org.spongepowered.api.Sponge;
 import org.spongepowered.api.data.DataQuery;
 import org.spongepowered.api.data.DataRegistration;
 import org.spongepowered.api.data.key.Key;
@@ -22,7 +23,7 @@ public class FlagHelper {
     public static FlagMapDataBuilder FMDB;
 
     public static void register() {
-        FMDB = new FlagMapDataBuilder(FlagMapDataImpl.class, 1);
+        FMDB = new FlagMapDataBuilder(FlagMapDataImpl.class, FlagMap.CONTENT_VERSION);
         DataRegistration.<FlagMapDataImpl, ImmFlagMapDataImpl>builder()
                 .dataClass(FlagMapDataImpl.class)
                 .immutableClass(ImmFlagMapDataImpl.class)
@@ -30,5 +31,6 @@ public class FlagHelper {
                 .manipulatorId("flagmap")
                 .dataName("flagmap")
                 .buildAndRegister(Denizen2Sponge.plugin);
+        Sponge.getDataManager().registerContentUpdater(FlagMapDataImpl.class, new FlagMapDataBuilder.Version1To2());
     }
 }
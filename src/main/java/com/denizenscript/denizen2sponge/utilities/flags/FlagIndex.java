@@ -0,0 +1,83 @@
+package com.denizenscript.denizen2sponge.utilities.flags;
+
+import org.spongepowered.api.entity.Entity;
+
+import java.util.*;
+
+/**
+ * Which loaded entities carry which flag names, so "everything flagged X" doesn't mean reading every entity's flags.
+ * Entities are indexed as the {@link com.denizenscript.denizen2sponge.utilities.EntityIndex} sees them load and unload,
+ * and kept current by the flag commands and flag expiry. Names are indexed whether or not the flag has expired yet,
+ * so callers still check each holder's flag.
+ */
+public class FlagIndex {
+
+    private static final HashMap<String, HashSet<UUID>> holders = new HashMap<>();
+
+    private static final HashMap<UUID, HashSet<String>> byHolder = new HashMap<>();
+
+    public static synchronized void add(UUID holder, String flag) {
+        byHolder.computeIfAbsent(holder, k -> new HashSet<>()).add(flag);
+        holders.computeIfAbsent(flag, k -> new HashSet<>()).add(holder);
+    }
+
+    public static synchronized void remove(UUID holder, String flag) {
+        HashSet<String> names = byHolder.get(holder);
+        if (names == null || !names.remove(flag)) {
+            return;
+        }
+        if (names.isEmpty()) {
+            byHolder.remove(holder);
+        }
+        unlink(holder, flag);
+    }
+
+    private static void unlink(UUID holder, String flag) {
+        HashSet<UUID> set = holders.get(flag);
+        if (set != null) {
+            set.remove(holder);
+            if (set.isEmpty()) {
+                holders.remove(flag);
+            }
+        }
+    }
+
+    public static synchronized void removeHolder(UUID holder) {
+        HashSet<String> names = byHolder.remove(holder);
+        if (names == null) {
+            return;
+        }
+        for (String flag : names) {
+            unlink(holder, flag);
+        }
+    }
+
+    /**
+     * Replaces everything indexed for the holder with the given flag names.
+     */
+    public static synchronized void setFlags(UUID holder, Collection<String> flags) {
+        removeHolder(holder);
+        for (String flag : flags) {
+            add(holder, flag);
+        }
+    }
+
+    public static void indexEntity(Entity ent) {
+        List<String> names = EntityFlags.getFlagNames(ent);
+        setFlags(ent.getUniqueId(), names);
+        if (!names.isEmpty()) {
+            FlagExpiry.scheduleEntity(ent);
+        }
+    }
+
+    /**
+     * Returns the UUIDs of loaded entities indexed under the flag name, as a copy.
+     */
+    public static synchronized List<UUID> getHolders(String flag) {
+        HashSet<UUID> set = holders.get(flag);
+        if (set == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(set);
+    }
+}
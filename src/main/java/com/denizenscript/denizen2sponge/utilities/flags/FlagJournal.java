@@ -0,0 +1,110 @@
+package com.denizenscript.denizen2sponge.utilities.flags;
+
+import com.denizenscript.denizen2core.utilities.Action;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The record format of the server flag journal: a change type byte, then the flag name, then for a set the saved value,
+ * each string written as its UTF-8 length and bytes.
+ */
+public class FlagJournal {
+
+    public static final byte SET = 1;
+
+    public static final byte REMOVE = 2;
+
+    public interface Visitor {
+
+        void set(String name, String value);
+
+        void remove(String name);
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in, long fileLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > fileLength) {
+            throw new EOFException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes one change. The value is null for a remove.
+     */
+    public static void write(DataOutputStream out, byte op, String name, String value) throws IOException {
+        out.writeByte(op);
+        writeString(out, name);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Hands every complete change in the file to the visitor, oldest first, and returns how many there were.
+     * If the file ends part way through a change or holds something unreadable, that is reported and the file is cut
+     * back to the last complete change, as anything appended after it would otherwise be read back as the rest of it.
+     */
+    public static int replay(File file, Visitor visitor, Action<String> error) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        int records = 0;
+        long complete = 0;
+        long fileLength = file.length();
+        boolean broken = false;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            int op;
+            while ((op = in.read()) != -1) {
+                if (op != SET && op != REMOVE) {
+                    error.run("Server flag journal " + file.getName() + " has an unknown change type " + op + ", ignoring the rest of it.");
+                    broken = true;
+                    break;
+                }
+                byte[] name = readBytes(in, fileLength);
+                byte[] value = op == SET ? readBytes(in, fileLength) : null;
+                String flagName = new String(name, StandardCharsets.UTF_8);
+                if (op == SET) {
+                    visitor.set(flagName, new String(value, StandardCharsets.UTF_8));
+                }
+                else {
+                    visitor.remove(flagName);
+                }
+                records++;
+                complete += 1 + 4 + name.length + (value == null ? 0 : 4 + value.length);
+            }
+        }
+        catch (EOFException e) {
+            // The server stopped part way through writing a change, which never took effect.
+            error.run("Server flag journal " + file.getName() + " ends part way through a change, ignoring it.");
+            broken = true;
+        }
+        catch (IOException e) {
+            error.run("Could not read server flag journal " + file.getName() + ": " + e.getMessage());
+            broken = true;
+        }
+        finally {
+            in.close();
+        }
+        if (broken) {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(complete);
+            }
+            finally {
+                raf.close();
+            }
+        }
+        return records;
+    }
+}
@@ -1,27 +1,134 @@
 package com.denizenscript.denizen2sponge.utilities.flags;
 
+import com.denizenscript.denizen2core.Denizen2Core;
+import com.denizenscript.denizen2core.tags.AbstractTagObject;
 import com.denizenscript.denizen2core.tags.objects.MapTag;
 import org.spongepowered.api.data.*;
+import org.spongepowered.api.data.persistence.InvalidDataException;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A holder's flags. Since content version 2 each flag is saved as its own node, so flags loaded from disk are only
+ * parsed when something reads them, one flag at a time, and a map nobody read is saved back without being parsed at all.
+ */
 public class FlagMap implements DataSerializable {
 
+    public static final int CONTENT_VERSION = 2;
+
+    // Version 1: the whole map as one savable string.
     public static final DataQuery FLAG = DataQuery.of("denizen_flag");
 
-    public MapTag flags;
+    // Version 2: one savable string per flag, keyed by flag name.
+    public static final DataQuery FLAGS = DataQuery.of("denizen_flags");
+
+    private MapTag flags;
+
+    private DataView raw;
+
+    private HashMap<String, AbstractTagObject> decoded;
 
     public FlagMap(MapTag mt) {
         flags = mt;
     }
 
+    public FlagMap(DataView saved) {
+        raw = saved;
+        decoded = new HashMap<>();
+    }
+
+    public static DataQuery flagQuery(String name) {
+        return DataQuery.of(Collections.singletonList(name));
+    }
+
+    private static AbstractTagObject decode(DataView view, String name) {
+        Optional<String> str = view.getString(flagQuery(name));
+        if (!str.isPresent()) {
+            return null;
+        }
+        return Denizen2Core.loadFromSaved((e) -> {
+            throw new InvalidDataException("Denizen2: " + e);
+        }, str.get());
+    }
+
+    /**
+     * Returns the full, mutable flag map, parsing whatever hasn't been parsed yet.
+     */
+    public synchronized MapTag getFlags() {
+        if (flags == null) {
+            MapTag mt = new MapTag();
+            for (DataQuery key : raw.getKeys(false)) {
+                String name = key.last().toString();
+                AbstractTagObject flag = decoded.get(name);
+                mt.getInternal().put(name, flag != null ? flag : decode(raw, name));
+            }
+            flags = mt;
+            raw = null;
+            decoded = null;
+        }
+        return flags;
+    }
+
+    /**
+     * Returns a single flag, or null if not present, without parsing the rest of the map.
+     */
+    public synchronized AbstractTagObject getFlag(String name) {
+        if (flags != null) {
+            return flags.getInternal().get(name);
+        }
+        AbstractTagObject flag = decoded.get(name);
+        if (flag == null) {
+            flag = decode(raw, name);
+            if (flag != null) {
+                decoded.put(name, flag);
+            }
+        }
+        return flag;
+    }
+
+    public synchronized boolean hasFlag(String name) {
+        if (flags != null) {
+            return flags.getInternal().containsKey(name);
+        }
+        return raw.contains(flagQuery(name));
+    }
+
+    /**
+     * Returns the names of all flags in the map, without parsing any of them.
+     */
+    public synchronized List<String> getFlagNames() {
+        if (flags != null) {
+            return new ArrayList<>(flags.getInternal().keySet());
+        }
+        List<String> names = new ArrayList<>();
+        for (DataQuery key : raw.getKeys(false)) {
+            names.add(key.last().toString());
+        }
+        return names;
+    }
+
+    public static DataContainer encode(MapTag flags) {
+        DataContainer view = DataContainer.createNew();
+        for (Map.Entry<String, AbstractTagObject> flag : flags.getInternal().entrySet()) {
+            view.set(flagQuery(flag.getKey()), flag.getValue().savable());
+        }
+        return view;
+    }
+
     @Override
     public int getContentVersion() {
-        return 1;
+        return CONTENT_VERSION;
     }
 
     @Override
-    public DataContainer toContainer() {
+    public synchronized DataContainer toContainer() {
         DataContainer mdc = DataContainer.createNew();
-        mdc.set(FLAG, flags.savable());
+        mdc.set(FLAGS, flags == null ? raw : encode(flags));
         return mdc;
     }
 }
@@ -7,6 +7,7 @@ import org.spongepowered.api.data.DataView;
 import org.spongepowered.api.data.Queries;
 import org.spongepowered.api.data.manipulator.DataManipulatorBuilder;
 import org.spongepowered.api.data.persistence.AbstractDataBuilder;
+import org.spongepowered.api.data.persistence.DataContentUpdater;
 import org.spongepowered.api.data.persistence.InvalidDataException;
 
 import java.util.Optional;
@@ -30,21 +31,53 @@ public class FlagMapDataBuilder extends AbstractDataBuilder<FlagMapDataImpl> imp
     @Override
     protected Optional<FlagMapDataImpl> buildContent(DataView container) throws InvalidDataException {
         Integer version = (Integer) container.get(Queries.CONTENT_VERSION).get();
-        if (version != 1) {
+        if (version != FlagMap.CONTENT_VERSION) {
             return Optional.empty();
         }
         Optional<DataView> dv = container.getView(FlagHelper.FLAGMAP.getQuery());
         if (!dv.isPresent()) {
             return Optional.empty();
         }
-        Optional<String> str = dv.get().getString(FlagMap.FLAG);
-        if (!str.isPresent()) {
+        Optional<DataView> flags = dv.get().getView(FlagMap.FLAGS);
+        if (!flags.isPresent()) {
             return Optional.empty();
         }
-        String val = str.get();
-        MapTag mt = (MapTag) Denizen2Core.loadFromSaved((e) -> {
-            throw new InvalidDataException("Denizen2: " + e);
-        }, val);
-        return Optional.of(new FlagMapDataImpl(new FlagMap(mt)));
+        // Copied so later changes to the container can't reach into the flags. The flags themselves are parsed on use.
+        return Optional.of(new FlagMapDataImpl(new FlagMap(flags.get().copy())));
+    }
+
+    /**
+     * Converts version 1 flag data, one savable string for the whole map, into one node per flag.
+     */
+    public static class Version1To2 implements DataContentUpdater {
+
+        @Override
+        public int getInputVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getOutputVersion() {
+            return 2;
+        }
+
+        @Override
+        public DataView update(DataView content) {
+            Optional<DataView> dv = content.getView(FlagHelper.FLAGMAP.getQuery());
+            if (dv.isPresent()) {
+                Optional<String> str = dv.get().getString(FlagMap.FLAG);
+                if (str.isPresent()) {
+                    MapTag mt = (MapTag) Denizen2Core.loadFromSaved((e) -> {
+                        throw new InvalidDataException("Denizen2: " + e);
+                    }, str.get());
+                    DataView flagMap = dv.get();
+                    flagMap.remove(FlagMap.FLAG);
+                    flagMap.set(FlagMap.FLAGS, FlagMap.encode(mt));
+                    content.set(FlagHelper.FLAGMAP.getQuery(), flagMap);
+                }
+            }
+            content.set(Queries.CONTENT_VERSION, getOutputVersion());
+            return content;
+        }
     }
 }
@@ -32,7 +32,7 @@ public class FlagMapDataImpl extends AbstractSingleData<FlagMap, FlagMapDataImpl
 
     @Override
     public int getContentVersion() {
-        return 1;
+        return FlagMap.CONTENT_VERSION;
     }
 
     @Override
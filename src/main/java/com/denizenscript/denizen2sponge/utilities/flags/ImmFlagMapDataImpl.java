@@ -27,7 +27,7 @@ public class ImmFlagMapDataImpl extends AbstractImmutableSingleData<FlagMap, Imm
 
     @Override
     public int getContentVersion() {
-        return 1;
+        return FlagMap.CONTENT_VERSION;
     }
 
     @Override
@@ -0,0 +1,552 @@
+package com.denizenscript.denizen2sponge.utilities.flags;
+
+import com.denizenscript.denizen2core.Denizen2Core;
+import com.denizenscript.denizen2core.tags.AbstractTagObject;
+import com.denizenscript.denizen2core.tags.objects.MapTag;
+import com.denizenscript.denizen2core.utilities.CoreUtilities;
+import com.denizenscript.denizen2core.utilities.debugging.Debug;
+import com.denizenscript.denizen2sponge.Denizen2Sponge;
+import com.denizenscript.denizen2sponge.Settings;
+import org.spongepowered.api.Sponge;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The server's flags. Every change is appended to a journal beside the snapshot file and flushed once a tick, and once
+ * the journal grows large enough it is folded into fresh snapshots on another thread. Loading reads the snapshot and
+ * replays whatever journal is left over on top of it, so a crash loses at most the last tick of changes.
+ * <p>
+ * Flags are held in shards. Normally there is just one, saved as server_flags.yml and loaded at startup. With
+ * 'Server Flags.Sharded' enabled, each key prefix (the part of the name before the first '_', '.' or ':') gets its own
+ * file under server_flags/, loaded the first time one of its flags is used and unloaded after sitting idle, and
+ * compacting only rewrites the shards that changed.
+ */
+public class ServerFlags {
+
+    private static final int MIN_COMPACT_RECORDS = 1024;
+
+    private static final int EVICT_CHECK_TICKS = 20;
+
+    private static final class Shard {
+
+        public final File file;
+
+        public final HashMap<String, AbstractTagObject> flags;
+
+        public boolean dirty = false;
+
+        public long lastUsed;
+
+        public Shard(File file, HashMap<String, AbstractTagObject> flags) {
+            this.file = file;
+            this.flags = flags;
+        }
+    }
+
+    private static boolean sharded = false;
+
+    private static long idleMillis;
+
+    private static final HashMap<String, Shard> shards = new HashMap<>();
+
+    private static DataOutputStream journal;
+
+    private static int journalRecords = 0;
+
+    private static boolean compacting = false;
+
+    // Counts compactions, so one that save() gave up waiting on knows not to touch anything once it wakes up.
+    private static volatile int generation = 0;
+
+    private static List<Snapshot> inFlight;
+
+    private static final long SAVE_WAIT_MILLIS = 10_000;
+
+    private static int ticks = 0;
+
+    public static File getSnapshotFile() {
+        return Denizen2Sponge.instance.getServerFlagsFile();
+    }
+
+    public static File getShardDirectory() {
+        return new File(Denizen2Sponge.instance.getMainDirectory(), "./server_flags/");
+    }
+
+    public static File getJournalFile() {
+        return new File(Denizen2Sponge.instance.getMainDirectory(), "./server_flags.journal");
+    }
+
+    // The journal being folded into a snapshot. Only deleted once that snapshot is safely in place.
+    public static File getCompactingJournalFile() {
+        return new File(Denizen2Sponge.instance.getMainDirectory(), "./server_flags.journal.old");
+    }
+
+    public static void register() {
+        Sponge.getScheduler().createTaskBuilder().intervalTicks(1).execute(ServerFlags::tick).submit(Denizen2Sponge.instance);
+    }
+
+    public static String getShardId(String name) {
+        if (!sharded) {
+            return "";
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '_' || c == '.' || c == ':') {
+                return name.substring(0, i);
+            }
+        }
+        // Names without a prefix share one shard.
+        return "";
+    }
+
+    // Keeps shard file names safe on any file system: anything but lowercase letters, digits and '-' is hex escaped.
+    private static String encodeShardId(String id) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            if ((b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b == '-') {
+                sb.append((char) b);
+            }
+            else {
+                sb.append('%').append(String.format("%02x", b & 0xFF));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String decodeShardId(String encoded) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            if (c == '%' && i + 2 < encoded.length()) {
+                out.write(Integer.parseInt(encoded.substring(i + 1, i + 3), 16));
+                i += 2;
+            }
+            else {
+                out.write(c);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static File getShardFile(String id) {
+        if (!sharded) {
+            return getSnapshotFile();
+        }
+        return new File(getShardDirectory(), "shard_" + encodeShardId(id) + ".yml");
+    }
+
+    private static List<String> getSavedShardIds() {
+        List<String> ids = new ArrayList<>();
+        File[] files = getShardDirectory().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.startsWith("shard_") && name.endsWith(".yml")) {
+                    ids.add(decodeShardId(name.substring("shard_".length(), name.length() - ".yml".length())));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static HashMap<String, AbstractTagObject> readSnapshot(File file) {
+        try {
+            if (!file.exists()) {
+                return new HashMap<>();
+            }
+            InputStream is = new FileInputStream(file);
+            String str = CoreUtilities.streamToString(is);
+            is.close();
+            return new HashMap<>(((MapTag) Denizen2Core.loadFromSaved(Debug::error, str)).getInternal());
+        }
+        catch (Exception e) {
+            Debug.exception(e);
+            return new HashMap<>();
+        }
+    }
+
+    private static Shard getShard(String id) {
+        Shard shard = shards.get(id);
+        if (shard == null) {
+            File file = getShardFile(id);
+            shard = new Shard(file, readSnapshot(file));
+            shards.put(id, shard);
+            FlagExpiry.scheduleServerFlags(shard.flags);
+        }
+        shard.lastUsed = System.currentTimeMillis();
+        return shard;
+    }
+
+    /**
+     * Returns every server flag. With sharding on, this loads every shard, so prefer getFlag where possible.
+     * The map is a copy: changes must go through setFlag and removeFlag.
+     */
+    public static synchronized MapTag getFlags() {
+        if (sharded) {
+            for (String id : getSavedShardIds()) {
+                getShard(id);
+            }
+        }
+        HashMap<String, AbstractTagObject> all = new HashMap<>();
+        for (Shard shard : shards.values()) {
+            all.putAll(shard.flags);
+        }
+        return new MapTag(all);
+    }
+
+    public static synchronized AbstractTagObject getFlag(String name) {
+        return getShard(getShardId(name)).flags.get(name);
+    }
+
+    public static synchronized boolean hasFlag(String name) {
+        return getShard(getShardId(name)).flags.containsKey(name);
+    }
+
+    public static synchronized void setFlag(String name, AbstractTagObject flag) {
+        Shard shard = getShard(getShardId(name));
+        shard.flags.put(name, flag);
+        shard.dirty = true;
+        append(FlagJournal.SET, name, flag.savable());
+    }
+
+    public static synchronized void removeFlag(String name) {
+        Shard shard = getShard(getShardId(name));
+        if (shard.flags.remove(name) != null) {
+            shard.dirty = true;
+            append(FlagJournal.REMOVE, name, null);
+        }
+    }
+
+    private static void append(byte op, String name, String value) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            FlagJournal.write(journal, op, name, value);
+            journalRecords++;
+        }
+        catch (IOException e) {
+            Debug.exception(e);
+        }
+    }
+
+    private static final FlagJournal.Visitor REPLAY = new FlagJournal.Visitor() {
+
+        @Override
+        public void set(String name, String value) {
+            Shard shard = getShard(getShardId(name));
+            shard.flags.put(name, Denizen2Core.loadFromSaved(Debug::error, value));
+            shard.dirty = true;
+        }
+
+        @Override
+        public void remove(String name) {
+            Shard shard = getShard(getShardId(name));
+            shard.flags.remove(name);
+            shard.dirty = true;
+        }
+    };
+
+    private static void openJournal() {
+        try {
+            journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getJournalFile(), true)));
+        }
+        catch (IOException e) {
+            journal = null;
+            Debug.exception(e);
+        }
+    }
+
+    private static void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        }
+        catch (IOException e) {
+            Debug.exception(e);
+        }
+        journal = null;
+    }
+
+    /**
+     * Pulls in flags saved under the other storage mode, after the mode was switched in the config.
+     * Returns the file or folder they came from, or null if there was nothing to move.
+     */
+    private static File migrate() {
+        List<HashMap<String, AbstractTagObject>> old = new ArrayList<>();
+        File from;
+        if (sharded) {
+            from = getSnapshotFile();
+            if (!from.exists()) {
+                return null;
+            }
+            old.add(readSnapshot(from));
+        }
+        else {
+            from = getShardDirectory();
+            File[] files = from.listFiles();
+            if (files == null) {
+                return null;
+            }
+            for (File file : files) {
+                if (file.getName().startsWith("shard_") && file.getName().endsWith(".yml")) {
+                    old.add(readSnapshot(file));
+                }
+            }
+        }
+        for (HashMap<String, AbstractTagObject> flags : old) {
+            for (Map.Entry<String, AbstractTagObject> flag : flags.entrySet()) {
+                Shard shard = getShard(getShardId(flag.getKey()));
+                shard.flags.put(flag.getKey(), flag.getValue());
+                shard.dirty = true;
+            }
+        }
+        return from;
+    }
+
+    public static synchronized void load() {
+        closeJournal();
+        shards.clear();
+        sharded = Settings.serverFlagsSharded();
+        idleMillis = (long) (Settings.serverFlagShardIdleSeconds() * 1000);
+        journalRecords = 0;
+        if (!sharded) {
+            getShard("");
+        }
+        File migrated = migrate();
+        try {
+            // Oldest first: a compaction that never finished, then everything since.
+            journalRecords += FlagJournal.replay(getCompactingJournalFile(), REPLAY, Debug::error);
+            journalRecords += FlagJournal.replay(getJournalFile(), REPLAY, Debug::error);
+        }
+        catch (Exception e) {
+            Debug.exception(e);
+        }
+        openJournal();
+        if (migrated != null) {
+            // Save in the new layout before moving the old files aside, so nothing is lost if this fails part way.
+            save();
+            if (!migrated.renameTo(new File(migrated.getPath() + ".migrated"))) {
+                Debug.error("Could not move aside old server flags at " + migrated.getPath() + ", they will be loaded again next start.");
+            }
+        }
+    }
+
+    public static synchronized void flush() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.flush();
+        }
+        catch (IOException e) {
+            Debug.exception(e);
+        }
+    }
+
+    public static synchronized void tick() {
+        flush();
+        if (!compacting) {
+            // Compacting one file rewrites every flag, so let its journal grow as large as the map first.
+            Shard single = shards.get("");
+            int limit = sharded || single == null ? MIN_COMPACT_RECORDS : Math.max(MIN_COMPACT_RECORDS, single.flags.size());
+            if (journalRecords > limit) {
+                compact();
+            }
+        }
+        if (sharded && !compacting && ++ticks >= EVICT_CHECK_TICKS) {
+            ticks = 0;
+            evictIdle();
+        }
+    }
+
+    // Clean shards only: a dirty shard's changes are only on disk in the journal. Never while a compaction is being
+    // written either, as a shard read back in then would come from a file that's about to change.
+    private static void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        Iterator<Shard> it = shards.values().iterator();
+        while (it.hasNext()) {
+            Shard shard = it.next();
+            if (!shard.dirty && shard.lastUsed < cutoff) {
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Snapshot {
+
+        public final Shard shard;
+
+        public final HashMap<String, AbstractTagObject> copy;
+
+        public Snapshot(Shard shard) {
+            this.shard = shard;
+            this.copy = new HashMap<>(shard.flags);
+        }
+    }
+
+    /**
+     * Starts a new journal and returns copies of every shard changed during the old one, or null if that failed.
+     */
+    private static List<Snapshot> rotate() {
+        closeJournal();
+        // Reset even on failure, so a failing compaction waits for another journal's worth before trying again.
+        journalRecords = 0;
+        try {
+            File current = getJournalFile();
+            File old = getCompactingJournalFile();
+            if (current.exists()) {
+                if (old.exists()) {
+                    // An earlier compaction didn't finish, so its journal is still needed: add to it.
+                    Files.write(old.toPath(), Files.readAllBytes(current.toPath()), StandardOpenOption.APPEND);
+                    Files.delete(current.toPath());
+                }
+                else {
+                    Files.move(current.toPath(), old.toPath());
+                }
+            }
+        }
+        catch (IOException e) {
+            Debug.exception(e);
+            return null;
+        }
+        finally {
+            openJournal();
+        }
+        compacting = true;
+        generation++;
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Shard shard : shards.values()) {
+            if (shard.dirty) {
+                shard.dirty = false;
+                snapshots.add(new Snapshot(shard));
+            }
+        }
+        inFlight = snapshots;
+        return snapshots;
+    }
+
+    private static void writeFile(File target, HashMap<String, AbstractTagObject> flags, int gen) throws IOException {
+        target.getParentFile().mkdirs();
+        File temp = new File(target.getPath() + "." + gen + ".tmp");
+        FileOutputStream os = new FileOutputStream(temp, false);
+        OutputStreamWriter osw = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+        osw.write(new MapTag(flags).savable());
+        osw.flush();
+        os.getFD().sync();
+        osw.close();
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeSnapshots(List<Snapshot> snapshots, int gen) {
+        boolean done = false;
+        try {
+            for (Snapshot snapshot : snapshots) {
+                if (gen != generation) {
+                    return;
+                }
+                if (snapshot.copy.isEmpty() && sharded) {
+                    Files.deleteIfExists(snapshot.shard.file.toPath());
+                }
+                else {
+                    writeFile(snapshot.shard.file, snapshot.copy, gen);
+                }
+            }
+            if (gen != generation) {
+                return;
+            }
+            Files.deleteIfExists(getCompactingJournalFile().toPath());
+            done = true;
+        }
+        catch (Exception e) {
+            Debug.exception(e);
+        }
+        finally {
+            synchronized (ServerFlags.class) {
+                if (gen != generation) {
+                    // Abandoned by save(), which has already taken over these shards.
+                    return;
+                }
+                inFlight = null;
+                if (!done) {
+                    // Keep them in memory until a later compaction gets them written.
+                    for (Snapshot snapshot : snapshots) {
+                        snapshot.shard.dirty = true;
+                    }
+                }
+                compacting = false;
+                ServerFlags.class.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Folds the journal into new snapshots, writing them on another thread.
+     */
+    public static synchronized void compact() {
+        if (compacting) {
+            return;
+        }
+        List<Snapshot> snapshots = rotate();
+        if (snapshots != null) {
+            int gen = generation;
+            Sponge.getScheduler().createTaskBuilder().async().execute(() -> writeSnapshots(snapshots, gen)).submit(Denizen2Sponge.instance);
+        }
+    }
+
+    /**
+     * Writes snapshots right away, waiting a while for any compaction already running. Used when the server stops.
+     * If that compaction doesn't finish in time, its shards are written here instead.
+     */
+    public static synchronized void save() {
+        long giveUp = System.currentTimeMillis() + SAVE_WAIT_MILLIS;
+        try {
+            while (compacting) {
+                long left = giveUp - System.currentTimeMillis();
+                if (left <= 0) {
+                    Debug.error("Server flag compaction is taking too long, saving without it.");
+                    abandonCompaction();
+                    break;
+                }
+                ServerFlags.class.wait(left);
+            }
+        }
+        catch (InterruptedException e) {
+            Debug.exception(e);
+            abandonCompaction();
+        }
+        List<Snapshot> snapshots = rotate();
+        if (snapshots != null) {
+            writeSnapshots(snapshots, generation);
+        }
+    }
+
+    private static void abandonCompaction() {
+        if (inFlight != null) {
+            for (Snapshot snapshot : inFlight) {
+                snapshot.shard.dirty = true;
+            }
+            inFlight = null;
+        }
+        // Its journal is still in place as the compacting journal, so the next rotation adds on to it.
+        generation++;
+        compacting = false;
+    }
+}
@@ -0,0 +1,111 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PositionTrackerTest {
+
+    private static final UUID WORLD = new UUID(0, 1);
+
+    private static final UUID OTHER_WORLD = new UUID(0, 2);
+
+    @Test
+    public void firesOnlyPastTheDistance() {
+        PositionTracker tracker = new PositionTracker(2);
+        UUID id = UUID.randomUUID();
+        assertTrue(tracker.moveIfFurther(id, WORLD, 0, 0, 0));
+        assertFalse(tracker.moveIfFurther(id, WORLD, 1, 0, 1));
+        assertTrue(tracker.moveIfFurther(id, WORLD, 2, 0, 0));
+        // Measured from the last accepted position, not the first.
+        assertFalse(tracker.moveIfFurther(id, WORLD, 3, 0, 0));
+        assertTrue(tracker.moveIfFurther(id, WORLD, 0, 0, 0));
+        assertEquals(1, tracker.size());
+    }
+
+    @Test
+    public void worldChangeStartsAfresh() {
+        PositionTracker tracker = new PositionTracker(5);
+        UUID id = UUID.randomUUID();
+        assertTrue(tracker.moveIfFurther(id, WORLD, 10, 64, 10));
+        assertTrue(tracker.moveIfFurther(id, OTHER_WORLD, 10, 64, 10));
+        assertFalse(tracker.moveIfFurther(id, OTHER_WORLD, 11, 64, 10));
+        assertTrue(tracker.moveIfFurther(id, WORLD, 11, 64, 10));
+    }
+
+    @Test
+    public void keepsUUIDsWithTheSameFoldedBitsApart() {
+        PositionTracker tracker = new PositionTracker(5);
+        // Both fold to 3 under msb ^ lsb.
+        UUID a = new UUID(1, 2);
+        UUID b = new UUID(2, 1);
+        assertTrue(tracker.moveIfFurther(a, WORLD, 0, 0, 0));
+        assertTrue(tracker.moveIfFurther(b, WORLD, 100, 0, 0));
+        assertFalse(tracker.moveIfFurther(a, WORLD, 1, 0, 0));
+        assertFalse(tracker.moveIfFurther(b, WORLD, 101, 0, 0));
+        assertEquals(2, tracker.size());
+        tracker.remove(a);
+        assertEquals(1, tracker.size());
+        assertFalse(tracker.moveIfFurther(b, WORLD, 101, 0, 0));
+        assertTrue(tracker.moveIfFurther(a, WORLD, 1, 0, 0));
+    }
+
+    @Test
+    public void removingKeepsTheRestFindable() {
+        PositionTracker tracker = new PositionTracker(1);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID id = new UUID(i * 31L, i);
+            ids.add(id);
+            assertTrue(tracker.moveIfFurther(id, WORLD, i, 0, 0));
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            tracker.remove(ids.get(i));
+        }
+        assertEquals(500, tracker.size());
+        for (int i = 1; i < ids.size(); i += 2) {
+            assertFalse(tracker.moveIfFurther(ids.get(i), WORLD, i, 0, 0));
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            assertTrue(tracker.moveIfFurther(ids.get(i), WORLD, i, 0, 0));
+        }
+        assertEquals(1000, tracker.size());
+    }
+
+    @Test
+    public void matchesAMapUnderChurn() {
+        Random random = new Random(7);
+        PositionTracker tracker = new PositionTracker(3);
+        HashMap<UUID, double[]> expected = new HashMap<>();
+        UUID[] pool = new UUID[300];
+        for (int i = 0; i < pool.length; i++) {
+            // Few distinct bits, so many land next to each other in the table.
+            pool[i] = new UUID(random.nextInt(8), random.nextInt(64));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            UUID id = pool[random.nextInt(pool.length)];
+            if (random.nextInt(3) == 0) {
+                tracker.remove(id);
+                expected.remove(id);
+            }
+            else {
+                double x = random.nextInt(10);
+                double[] last = expected.get(id);
+                boolean moved = last == null || Math.abs(x - last[0]) >= 3;
+                assertEquals(moved, tracker.moveIfFurther(id, WORLD, x, 0, 0));
+                if (moved) {
+                    expected.put(id, new double[] { x });
+                }
+            }
+            assertEquals(expected.size(), tracker.size());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.denizenscript.denizen2sponge.utilities;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    @Test
+    public void firesOnceDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(50, 4, 0);
+        wheel.schedule(500, "a");
+        List<String> fired = new ArrayList<>();
+        wheel.advance(449, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(500, fired::add);
+        assertEquals(1, fired.size());
+        assertEquals("a", fired.get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void pastEntriesFireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(50, 4, 1000);
+        wheel.schedule(200, "late");
+        assertEquals(1, wheel.size());
+        List<String> fired = new ArrayList<>();
+        wheel.advance(1000, fired::add);
+        assertEquals(1, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cascadesDownFromUpperLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 3, 0);
+        long[] ticks = new long[] { 63, 64, 65, 127, 128, 4095, 4096, 4097, 100_000 };
+        for (long tick : ticks) {
+            wheel.schedule(tick, tick);
+        }
+        for (long tick : ticks) {
+            List<Long> fired = new ArrayList<>();
+            wheel.advance(tick - 1, fired::add);
+            assertTrue("fired before " + tick, fired.isEmpty());
+            wheel.advance(tick, fired::add);
+            assertEquals(1, fired.size());
+            assertEquals(tick, (long) fired.get(0));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void overflowComesBackRound() {
+        // Two levels cover 4096 ticks, anything further waits in the overflow list.
+        TimingWheel<String> wheel = new TimingWheel<>(1, 2, 0);
+        wheel.schedule(5000, "far");
+        wheel.schedule(20_000, "further");
+        List<String> fired = new ArrayList<>();
+        wheel.advance(4999, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(5000, fired::add);
+        assertEquals(1, fired.size());
+        assertEquals("far", fired.get(0));
+        wheel.advance(19_999, fired::add);
+        assertEquals(1, fired.size());
+        wheel.advance(20_000, fired::add);
+        assertEquals(2, fired.size());
+        assertEquals("further", fired.get(1));
+    }
+
+    @Test
+    public void scheduledWhileFiringWaitsForNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(50, 4, 0);
+        wheel.schedule(100, "a");
+        List<String> fired = new ArrayList<>();
+        wheel.advance(100, value -> {
+            fired.add(value);
+            if (value.equals("a")) {
+                wheel.schedule(100, "b");
+            }
+        });
+        assertEquals(1, fired.size());
+        assertEquals(1, wheel.size());
+        wheel.advance(100, fired::add);
+        assertEquals(2, fired.size());
+        assertEquals("b", fired.get(1));
+    }
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(42);
+        TimingWheel<long[]> wheel = new TimingWheel<>(1, 2, 0);
+        List<long[]> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // { due tick, tick it fired at }
+            long[] entry = new long[] { random.nextInt(30_000), -1 };
+            entries.add(entry);
+            wheel.schedule(entry[0], entry);
+        }
+        long now = 0;
+        while (now < 31_000) {
+            now += 1 + random.nextInt(200);
+            long at = now;
+            wheel.advance(at, entry -> {
+                assertEquals(-1, entry[1]);
+                entry[1] = at;
+            });
+        }
+        assertEquals(0, wheel.size());
+        for (long[] entry : entries) {
+            assertTrue("fired early", entry[1] >= entry[0]);
+            assertTrue("fired late", entry[1] - entry[0] <= 200);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.denizenscript.denizen2sponge.utilities.flags;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlagJournalTest {
+
+    private static class Recorder implements FlagJournal.Visitor {
+
+        public final List<String> changes = new ArrayList<>();
+
+        @Override
+        public void set(String name, String value) {
+            changes.add("set " + name + "=" + value);
+        }
+
+        @Override
+        public void remove(String name) {
+            changes.add("remove " + name);
+        }
+    }
+
+    private static File tempJournal() throws IOException {
+        File file = File.createTempFile("flags", ".journal");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void append(File file, byte op, String name, String value) throws IOException {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true));
+        try {
+            FlagJournal.write(out, op, name, value);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    private static void appendRaw(File file, byte[] bytes) throws IOException {
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(bytes);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void missingFileReplaysNothing() throws IOException {
+        File file = tempJournal();
+        file.delete();
+        List<String> errors = new ArrayList<>();
+        assertEquals(0, FlagJournal.replay(file, new Recorder(), errors::add));
+        assertEquals(0, errors.size());
+    }
+
+    @Test
+    public void replaysChangesInOrder() throws IOException {
+        File file = tempJournal();
+        append(file, FlagJournal.SET, "a", "1");
+        append(file, FlagJournal.SET, "b", "\u00e9t\u00e9");
+        append(file, FlagJournal.REMOVE, "a", null);
+        Recorder recorder = new Recorder();
+        List<String> errors = new ArrayList<>();
+        assertEquals(3, FlagJournal.replay(file, recorder, errors::add));
+        assertEquals(0, errors.size());
+        assertEquals(3, recorder.changes.size());
+        assertEquals("set a=1", recorder.changes.get(0));
+        assertEquals("set b=\u00e9t\u00e9", recorder.changes.get(1));
+        assertEquals("remove a", recorder.changes.get(2));
+    }
+
+    @Test
+    public void cutsOffATornTail() throws IOException {
+        File file = tempJournal();
+        append(file, FlagJournal.SET, "a", "1");
+        append(file, FlagJournal.REMOVE, "b", null);
+        long complete = file.length();
+        // A set of "name" that stopped part way through its value.
+        appendRaw(file, new byte[] { FlagJournal.SET, 0, 0, 0, 4, 'n', 'a', 'm', 'e', 0, 0, 0, 5, 'v' });
+        Recorder recorder = new Recorder();
+        List<String> errors = new ArrayList<>();
+        assertEquals(2, FlagJournal.replay(file, recorder, errors::add));
+        assertEquals(1, errors.size());
+        assertEquals(2, recorder.changes.size());
+        assertEquals(complete, file.length());
+        // What's appended next reads back cleanly rather than as the rest of the broken change.
+        append(file, FlagJournal.SET, "c", "3");
+        recorder = new Recorder();
+        errors.clear();
+        assertEquals(3, FlagJournal.replay(file, recorder, errors::add));
+        assertEquals(0, errors.size());
+        assertEquals("set c=3", recorder.changes.get(2));
+    }
+
+    @Test
+    public void cutsOffATailWithABadLength() throws IOException {
+        File file = tempJournal();
+        append(file, FlagJournal.SET, "a", "1");
+        long complete = file.length();
+        appendRaw(file, new byte[] { FlagJournal.SET, 0x7F, 0, 0, 0, 'x' });
+        List<String> errors = new ArrayList<>();
+        assertEquals(1, FlagJournal.replay(file, new Recorder(), errors::add));
+        assertEquals(1, errors.size());
+        assertEquals(complete, file.length());
+    }
+
+    @Test
+    public void cutsOffAnUnknownChange() throws IOException {
+        File file = tempJournal();
+        append(file, FlagJournal.SET, "a", "1");
+        long complete = file.length();
+        appendRaw(file, new byte[] { 9, 0, 0, 0, 1, 'z' });
+        append(file, FlagJournal.SET, "b", "2");
+        Recorder recorder = new Recorder();
+        List<String> errors = new ArrayList<>();
+        assertEquals(1, FlagJournal.replay(file, recorder, errors::add));
+        assertEquals(1, errors.size());
+        assertEquals(1, recorder.changes.size());
+        assertEquals(complete, file.length());
+    }
+}